@@ -0,0 +1,73 @@
+package com.example.benchmark;
+
+import com.example.entity.Account;
+import com.example.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of registration and login, including logins for usernames that do not exist.
+ * Runs with a low password hashing cost so the account lookups are measured rather than the
+ * hashing itself; {@link PasswordHashingBenchmark} measures the hashing cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start("spring.cache.type=" + cache, "app.passwords.iterations=1");
+        BenchmarkApp.seed(context, accounts, 0);
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded usernames.
+     */
+    @State(Scope.Thread)
+    public static class Usernames {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        String existing(AccountServiceBenchmark benchmark) {
+            return "benchmark" + (BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.accounts));
+        }
+    }
+
+    @Benchmark
+    public Account login(Usernames usernames) {
+        return accountService.login(new Account(usernames.existing(this), "password")).join();
+    }
+
+    @Benchmark
+    public Account loginUnknownUsername(Usernames usernames) {
+        return accountService.login(new Account("unknown" + usernames.random.nextInt(), "password")).join();
+    }
+
+    @Benchmark
+    public Account registerAccount() {
+        return accountService.registerAccount(new Account("registered" + registrations.incrementAndGet(), "password")).join();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.benchmark;
+
+import com.example.SocialMediaApp;
+import com.example.service.AccountService;
+import com.example.service.KnownAccountIds;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Starts the application without a web server against its own H2 database and fills it
+ * with synthetic accounts and messages for the benchmarks.
+ */
+final class BenchmarkApp {
+    /**
+     * First ID given to seeded accounts and messages, well clear of the IDs the sequences hand out.
+     */
+    static final int FIRST_SEEDED_ID = 1_000_000;
+    /**
+     * Posting time of the first seeded message; by default each following message is one second later.
+     */
+    static final long FIRST_EPOCH = 1669947792L;
+
+    private static final int SEED_CHUNK = 10_000;
+
+    private BenchmarkApp() {
+    }
+
+    /**
+     * Starts the application with the given extra properties, which override application.properties.
+     * @param properties properties in key=value form
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(SocialMediaApp.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off", "logging.level.root=warn")
+                .run(arguments(properties));
+    }
+
+    /**
+     * Starts the application with an embedded web server on a free port.
+     * @param properties properties in key=value form
+     * @return the running application context; the port is in the local.server.port property
+     */
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        return new SpringApplicationBuilder(SocialMediaApp.class)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off", "logging.level.root=warn", "server.port=0")
+                .run(arguments(properties));
+    }
+
+    /**
+     * Passes properties as command line arguments; unlike builder default properties, these
+     * take precedence over application.properties.
+     */
+    private static String[] arguments(String... properties) {
+        String[] arguments = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            arguments[i] = "--" + properties[i];
+        }
+        return arguments;
+    }
+
+    /**
+     * Inserts accounts named benchmark{id} with password "password", and messages spread
+     * round-robin over those accounts, then refreshes the username filter and the known account
+     * IDs so the seeded accounts can log in and post without extra lookups. Messages created
+     * afterwards are numbered from the end of the seeded range.
+     * @param context the running application context
+     * @param accounts the number of accounts to insert
+     * @param messages the number of messages to insert
+     */
+    static void seed(ConfigurableApplicationContext context, int accounts, int messages) {
+        seed(context, accounts, messages, 1);
+    }
+
+    /**
+     * Inserts accounts and messages like {@link #seed(ConfigurableApplicationContext, int, int)},
+     * with the messages posted the given number of seconds apart.
+     * @param context the running application context
+     * @param accounts the number of accounts to insert
+     * @param messages the number of messages to insert
+     * @param secondsApart the time between consecutive messages
+     */
+    static void seed(ConfigurableApplicationContext context, int accounts, int messages, long secondsApart) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (int start = 0; start < accounts; start += SEED_CHUNK) {
+            int from = start;
+            int count = Math.min(SEED_CHUNK, accounts - start);
+            jdbc.batchUpdate("insert into account (accountId, username, password) values (?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            int id = FIRST_SEEDED_ID + from + i;
+                            ps.setInt(1, id);
+                            ps.setString(2, "benchmark" + id);
+                            ps.setString(3, "password");
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    });
+        }
+        for (int start = 0; start < messages; start += SEED_CHUNK) {
+            int from = start;
+            int count = Math.min(SEED_CHUNK, messages - start);
+            jdbc.batchUpdate("insert into message (messageId, postedBy, messageText, timePostedEpoch) values (?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            int n = from + i;
+                            ps.setInt(1, FIRST_SEEDED_ID + n);
+                            ps.setInt(2, FIRST_SEEDED_ID + n % accounts);
+                            ps.setString(3, "benchmark message " + n);
+                            ps.setLong(4, FIRST_EPOCH + n * secondsApart);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    });
+        }
+        // new messages get IDs after the seeded ones, clear of the IDs data.sql inserts
+        jdbc.execute("alter sequence message_seq restart with " + (FIRST_SEEDED_ID + messages));
+        context.getBean(AccountService.class).loadKnownUsernames();
+        context.getBean(KnownAccountIds.class).load();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clients polling the same {@value #POLLED} unchanged messages, or message lists of 100 messages
+ * each, over HTTP, each sending the ETag of its last response for the path
+ * ({@code revalidate=etag}) or not ({@code revalidate=none}). Besides throughput,
+ * the {@code bytes} and {@code requests} counters give the response bytes received per request,
+ * and each iteration prints the process CPU time per request, which includes the clients'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConditionalGetBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int MESSAGES = 100_000;
+    /**
+     * Number of messages, or accounts, each client polls; after warmup it has an ETag for each.
+     */
+    private static final int POLLED = 100;
+
+    @Param({"etag", "none"})
+    public String revalidate;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private final LongAdder requests = new LongAdder();
+    private long iterationCpuNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.startWeb();
+        BenchmarkApp.seed(context, ACCOUNTS, MESSAGES);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        requests.reset();
+        iterationCpuNanos = processCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        long count = Math.max(1, requests.sum());
+        System.out.printf("%n%.1f us of process CPU per request%n",
+                (processCpuNanos() - iterationCpuNanos) / 1000.0 / count);
+    }
+
+    /**
+     * Per-thread polling client: random seeded IDs, the ETag last received for each path, and
+     * the response bytes received.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Poller {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private final Map<String, String> etags = new HashMap<>();
+        public long bytes;
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            requests = 0;
+        }
+
+        String message() {
+            return "/messages/" + (BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(POLLED));
+        }
+
+        String accountMessages() {
+            return "/accounts/" + (BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(POLLED)) + "/messages";
+        }
+    }
+
+    @Benchmark
+    public int pollMessage(Poller poller) throws IOException, InterruptedException {
+        return poll(poller, poller.message());
+    }
+
+    @Benchmark
+    public int pollAccountMessages(Poller poller) throws IOException, InterruptedException {
+        return poll(poller, poller.accountMessages());
+    }
+
+    private int poll(Poller poller, String path) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        String etag = poller.etags.get(path);
+        if (etag != null && "etag".equals(revalidate)) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.headers().firstValue("ETag").ifPresent(tag -> poller.etags.put(path, tag));
+        poller.bytes += response.body().length;
+        poller.requests++;
+        requests.increment();
+        return response.statusCode();
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
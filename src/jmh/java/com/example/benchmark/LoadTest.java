@@ -0,0 +1,352 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end HTTP load test. Starts the application in-process on H2, seeds accounts,
+ * messages and a skewed follow graph, then drives a weighted mix of API calls from a
+ * fixed number of closed-loop clients, each on its own virtual thread and connection.
+ * Latency is recorded per operation in HdrHistograms and written, with throughput, error
+ * counts and the JVM's peak heap, RSS and platform thread count, as a JSON report that can
+ * be diffed between builds. The clients share the JVM with the application, so the memory
+ * figures include them; compare runs with the same client count.
+ * <p>
+ * Configuration is read from system properties:
+ * <ul>
+ *     <li>{@code loadtest.threads} - concurrent clients and connections (default 32)</li>
+ *     <li>{@code loadtest.warmup} / {@code loadtest.duration} - seconds of unrecorded and recorded load (5 / 30)</li>
+ *     <li>{@code loadtest.accounts} / {@code loadtest.messages} - seeded dataset size (1000 / 100000)</li>
+ *     <li>{@code loadtest.follows} - follows per account, drawn from a Zipf distribution (20)</li>
+ *     <li>{@code loadtest.zipf} - Zipf exponent of followee popularity (1.1)</li>
+ *     <li>{@code loadtest.mix} - operation weights, e.g. {@code read=50,feed=10,create=10}</li>
+ *     <li>{@code loadtest.app} - extra application properties, comma separated</li>
+ *     <li>{@code loadtest.report} - report path (target/loadtest-report.json)</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private static final String DEFAULT_MIX =
+            "register=2,login=10,create=10,read=35,readAccount=15,feed=15,update=8,delete=5";
+
+    private final int accounts = Integer.getInteger("loadtest.accounts", 1000);
+    private final int messages = Integer.getInteger("loadtest.messages", 100_000);
+    private final int threads = Integer.getInteger("loadtest.threads", 32);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+    private final int follows = Integer.getInteger("loadtest.follows", 20);
+    private final double zipf = Double.parseDouble(System.getProperty("loadtest.zipf", "1.1"));
+    private final String mix = System.getProperty("loadtest.mix", DEFAULT_MIX);
+    private final String appProperties = System.getProperty("loadtest.app", "");
+    private final String reportPath = System.getProperty("loadtest.report", "target/loadtest-report.json");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final AtomicLong registrations = new AtomicLong();
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+    private String baseUrl;
+    private volatile boolean recording;
+    private volatile boolean running = true;
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+    private final AtomicLong peakRss = new AtomicLong();
+    private final AtomicLong peakPlatformThreads = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        parseMix();
+        List<String> properties = new ArrayList<>();
+        properties.add("server.tomcat.max-connections=" + Math.max(8192, threads * 2));
+        properties.add("server.tomcat.accept-count=" + Math.max(100, threads));
+        if (!appProperties.isBlank()) {
+            properties.addAll(Arrays.asList(appProperties.split(",")));
+        }
+        ConfigurableApplicationContext context = BenchmarkApp.startWeb(properties.toArray(new String[0]));
+        try {
+            BenchmarkApp.seed(context, accounts, messages);
+            seedFollows(context);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+            for (int i = 0; i < threads; i++) {
+                long seed = i;
+                pool.submit(() -> client(new SplittableRandom(seed)));
+            }
+            TimeUnit.SECONDS.sleep(warmupSeconds);
+            operations.forEach(Operation::reset);
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(this::sampleResources, 0, 100, TimeUnit.MILLISECONDS);
+            recording = true;
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(durationSeconds);
+            recording = false;
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            sampler.shutdownNow();
+            running = false;
+            pool.shutdown();
+            pool.awaitTermination(60, TimeUnit.SECONDS);
+            writeReport(elapsed);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void parseMix() {
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                operations.add(new Operation(parts[0].trim(), weight));
+                totalWeight += weight;
+            }
+        }
+    }
+
+    /**
+     * Each account follows a fixed number of others chosen by Zipf-distributed popularity,
+     * so a few accounts collect most followers and cross the fan-out threshold.
+     */
+    private void seedFollows(ConfigurableApplicationContext context) {
+        double[] cumulative = new double[accounts];
+        double sum = 0;
+        for (int rank = 0; rank < accounts; rank++) {
+            sum += 1 / Math.pow(rank + 1, zipf);
+            cumulative[rank] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        List<Object[]> rows = new ArrayList<>();
+        for (int follower = 0; follower < accounts; follower++) {
+            Set<Integer> followees = new HashSet<>();
+            for (int attempt = 0; followees.size() < Math.min(follows, accounts - 1) && attempt < follows * 10; attempt++) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                int followee = index >= 0 ? index : Math.min(-index - 1, accounts - 1);
+                if (followee != follower) {
+                    followees.add(followee);
+                }
+            }
+            for (Integer followee : followees) {
+                rows.add(new Object[]{BenchmarkApp.FIRST_SEEDED_ID + follower, BenchmarkApp.FIRST_SEEDED_ID + followee});
+            }
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into follow (followerId, followeeId) values (?, ?)", rows);
+    }
+
+    /**
+     * Records the peak heap in use, resident set size and live platform threads (virtual threads
+     * are not included in the thread count).
+     */
+    private void sampleResources() {
+        peakHeapUsed.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+        peakPlatformThreads.accumulateAndGet(ManagementFactory.getThreadMXBean().getThreadCount(), Math::max);
+        peakRss.accumulateAndGet(residentSetSize(), Math::max);
+    }
+
+    /**
+     * @return the process resident set size in bytes, or 0 where /proc is not available
+     */
+    private static long residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    private void client(SplittableRandom random) {
+        while (running) {
+            Operation operation = pick(random);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = send(operation.name, random) < 500;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (recording) {
+                operation.record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private int send(String operation, SplittableRandom random) throws IOException, InterruptedException {
+        int account = BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(accounts);
+        int message = BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(messages);
+        HttpRequest.Builder request;
+        switch (operation) {
+            case "register":
+                request = json("/register", "POST",
+                        "{\"username\":\"loadtest" + registrations.incrementAndGet() + "\",\"password\":\"password\"}");
+                break;
+            case "login":
+                request = json("/login", "POST",
+                        "{\"username\":\"benchmark" + account + "\",\"password\":\"password\"}");
+                break;
+            case "create":
+                request = json("/messages?userId=" + account, "POST",
+                        "{\"postedBy\":" + account + ",\"messageText\":\"load test message\",\"timePostedEpoch\":1669947792}");
+                break;
+            case "read":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/messages/" + message)).GET();
+                break;
+            case "readAccount":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/" + account + "/messages?limit=50")).GET();
+                break;
+            case "feed":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/" + account + "/feed?limit=50")).GET();
+                break;
+            case "update":
+                request = json("/messages/" + message, "PATCH", "{\"messageText\":\"updated by load test\"}");
+                break;
+            case "delete":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/messages/" + message)).DELETE();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private void writeReport(double elapsedSeconds) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("threads", threads);
+        config.put("durationSeconds", durationSeconds);
+        config.put("accounts", accounts);
+        config.put("messages", messages);
+        config.put("followsPerAccount", follows);
+        config.put("zipf", zipf);
+        config.put("mix", mix);
+        config.put("app", appProperties);
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            endpoints.put(operation.name, summary(operation.latency, operation.errors.get(), elapsedSeconds));
+            total.add(operation.latency);
+            totalErrors += operation.errors.get();
+        }
+        Map<String, Object> resources = new LinkedHashMap<>();
+        resources.put("peakHeapUsedBytes", peakHeapUsed.get());
+        resources.put("peakRssBytes", peakRss.get());
+        resources.put("peakPlatformThreads", peakPlatformThreads.get());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("resources", resources);
+        report.put("total", summary(total, totalErrors, elapsedSeconds));
+        report.put("endpoints", endpoints);
+
+        File file = new File(reportPath);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(file, report);
+        System.out.println(mapper.writeValueAsString(report));
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Throughput, error rate and latency percentiles in microseconds.
+     */
+    private static Map<String, Object> summary(Histogram latency, long errors, double elapsedSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = latency.getTotalCount();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0 : (double) errors / count);
+        summary.put("throughputPerSecond", count / elapsedSeconds);
+        summary.put("meanMicros", latency.getMean() / 1000);
+        summary.put("p50Micros", latency.getValueAtPercentile(50) / 1000);
+        summary.put("p90Micros", latency.getValueAtPercentile(90) / 1000);
+        summary.put("p99Micros", latency.getValueAtPercentile(99) / 1000);
+        summary.put("p999Micros", latency.getValueAtPercentile(99.9) / 1000);
+        summary.put("maxMicros", latency.getMaxValue() / 1000);
+        return summary;
+    }
+
+    /**
+     * One weighted operation of the mix and its recorded latencies in nanoseconds.
+     */
+    private static final class Operation {
+        private final String name;
+        private final int weight;
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+
+        Operation(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        void record(long nanos, boolean ok) {
+            latency.recordValue(nanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        void reset() {
+            latency.reset();
+            errors.set(0);
+        }
+    }
+}
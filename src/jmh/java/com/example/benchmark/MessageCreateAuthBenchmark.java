@@ -0,0 +1,90 @@
+package com.example.benchmark;
+
+import com.example.service.TokenService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of POST /messages when the poster is named by the userId parameter and checked for
+ * existence, and when it comes from a session token that is verified without any account check.
+ * Also measures token verification on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MessageCreateAuthBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"userId", "token"})
+    public String auth;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private TokenService tokenService;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.startWeb();
+        BenchmarkApp.seed(context, ACCOUNTS, 0);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        tokenService = context.getBean(TokenService.class);
+        tokens = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            tokens[i] = TokenService.BEARER_PREFIX + tokenService.issue(BenchmarkApp.FIRST_SEEDED_ID + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded accounts.
+     */
+    @State(Scope.Thread)
+    public static class Accounts {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int next() {
+            return random.nextInt(ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public int createMessage(Accounts accounts) throws IOException, InterruptedException {
+        int index = accounts.next();
+        int account = BenchmarkApp.FIRST_SEEDED_ID + index;
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"postedBy\":" + account + ",\"messageText\":\"benchmark\",\"timePostedEpoch\":1669947792}"));
+        if ("token".equals(auth)) {
+            request.uri(URI.create(baseUrl + "/messages")).header("Authorization", tokens[index]);
+        } else {
+            request.uri(URI.create(baseUrl + "/messages?userId=" + account));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public Integer verifyToken(Accounts accounts) {
+        return tokenService.authenticate(tokens[accounts.next()]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.benchmark;
+
+import com.example.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a full export under a small heap. The messages are kept in an on-disk H2 database
+ * with a small page cache, so the 96 MB heap only has to hold the application and the
+ * export's working set; materializing the table would fail with an OutOfMemoryError.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx96m")
+public class MessageExportBenchmark {
+
+    @Param({"2000000"})
+    public int messages;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start(
+                "spring.datasource.url=jdbc:h2:file:./target/benchmark/export;CACHE_SIZE=8192",
+                "spring.sql.init.mode=always",
+                "app.accounts.expected-usernames=1000");
+        BenchmarkApp.seed(context, 100, messages);
+        messageService = context.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportMessages() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long exported = messageService.exportMessages(out);
+        if (exported < messages) {
+            throw new IllegalStateException("Exported " + exported + " of " + messages + " messages");
+        }
+        return out.bytes;
+    }
+
+    /**
+     * Discards the export, keeping only its size.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import com.example.entity.Message;
+import com.example.service.MessageIngestService;
+import com.example.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained message inserts per second from 32 concurrent posters, each waiting for its message
+ * to be committed: {@code ingest=false} runs one transaction per message through
+ * {@link MessageService#createMessage(Message, Integer)}, {@code ingest=true} queues messages for
+ * the write-behind writer, which commits them in groups. Raise {@code -p maxDelay} to trade
+ * latency for larger groups. The long warmup lets all 32 threads' paths through Spring and
+ * Hibernate get compiled before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class MessageIngestBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean ingest;
+
+    @Param({"2ms"})
+    public String maxDelay;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private MessageIngestService ingestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start("app.ingest.enabled=" + ingest, "app.ingest.max-delay=" + maxDelay,
+                "spring.datasource.hikari.maximum-pool-size=32");
+        BenchmarkApp.seed(context, ACCOUNTS, 0);
+        messageService = context.getBean(MessageService.class);
+        ingestService = context.getBean(MessageIngestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded posters.
+     */
+    @State(Scope.Thread)
+    public static class Posters {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int pick() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public Message createMessage(Posters posters) {
+        int poster = posters.pick();
+        Message message = new Message(poster, "new benchmark message #ingest", BenchmarkApp.FIRST_EPOCH);
+        return ingest
+                ? ingestService.submit(message, poster).join()
+                : messageService.createMessage(message, poster);
+    }
+}
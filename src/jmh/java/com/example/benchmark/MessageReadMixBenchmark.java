@@ -0,0 +1,81 @@
+package com.example.benchmark;
+
+import com.example.entity.Message;
+import com.example.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of a read-heavy mix: seven reader threads against one writer, with
+ * 90% of reads going to a hot 1% of messages and accounts. Sample mode reports p50/p99/p999,
+ * so running with {@code -p cache=caffeine,none} shows what the read-through caches buy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageReadMixBenchmark {
+
+    @Param({"100000"})
+    public int messages;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private int accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start("spring.cache.type=" + cache);
+        accounts = Math.max(10, messages / 100);
+        BenchmarkApp.seed(context, accounts, messages);
+        messageService = context.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of skewed random IDs.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int pick(int count) {
+            int hot = Math.max(1, count / 100);
+            return BenchmarkApp.FIRST_SEEDED_ID + (random.nextInt(10) < 9 ? random.nextInt(hot) : random.nextInt(count));
+        }
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(4)
+    public Message readMessage(Ids ids) {
+        return messageService.getMessageById(ids.pick(messages));
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(3)
+    public List<Message> readAccountMessages(Ids ids) {
+        return messageService.getMessagesByAccountId(ids.pick(accounts));
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public Message writeMessage(Ids ids) {
+        return messageService.updateMessageById(ids.pick(messages), "updated benchmark message");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.benchmark;
+
+import com.example.entity.Message;
+import com.example.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded latency of the MessageService hot paths as the message table grows.
+ * Run with {@code -p messages=1000,100000,10000000} to compare dataset sizes, and
+ * {@code -p cache=none} to measure the database path without the read-through caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageServiceBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1000", "100000"})
+    public int messages;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private int accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start("spring.cache.type=" + cache);
+        accounts = Math.max(10, messages / 100);
+        BenchmarkApp.seed(context, accounts, messages);
+        messageService = context.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded IDs.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int message(MessageServiceBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.messages);
+        }
+
+        int account(MessageServiceBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.accounts);
+        }
+    }
+
+    @Benchmark
+    public Message getMessageById(Ids ids) {
+        return messageService.getMessageById(ids.message(this));
+    }
+
+    @Benchmark
+    public List<Message> getMessagesByAccountId(Ids ids) {
+        return messageService.getMessagesByAccountId(ids.account(this));
+    }
+
+    @Benchmark
+    public Message updateMessageById(Ids ids) {
+        return messageService.updateMessageById(ids.message(this), "updated benchmark message");
+    }
+
+    @Benchmark
+    public Message createMessage(Ids ids) {
+        int poster = ids.account(this);
+        return messageService.createMessage(new Message(poster, "new benchmark message", BenchmarkApp.FIRST_EPOCH), poster);
+    }
+
+    /**
+     * Reported per message, so it compares directly with {@link #createMessage(Ids)}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object createMessagesBatch(Ids ids) {
+        List<Message> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Message(ids.account(this), "new benchmark message", BenchmarkApp.FIRST_EPOCH));
+        }
+        return messageService.createMessages(batch);
+    }
+}
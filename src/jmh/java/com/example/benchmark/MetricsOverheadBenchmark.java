@@ -0,0 +1,94 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metrics instrumentation on request latency. Runs the same HTTP calls with all
+ * meters on (request and service timers with histograms, repository timers, query counts)
+ * and with every meter disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int MESSAGES = 100_000;
+
+    @Param({"on", "off"})
+    public String metrics;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "on".equals(metrics)
+                ? BenchmarkApp.startWeb()
+                : BenchmarkApp.startWeb("app.metrics.enabled=false", "management.metrics.enable.all=false");
+        BenchmarkApp.seed(context, ACCOUNTS, MESSAGES);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded IDs.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int message() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(MESSAGES);
+        }
+
+        int account() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public int getMessageById(Ids ids) throws IOException, InterruptedException {
+        return get("/messages/" + ids.message());
+    }
+
+    @Benchmark
+    public int getMessagePageByAccountId(Ids ids) throws IOException, InterruptedException {
+        return get("/accounts/" + ids.account() + "/messages?limit=20");
+    }
+
+    @Benchmark
+    public int createMessage(Ids ids) throws IOException, InterruptedException {
+        int account = ids.account();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/messages?userId=" + account))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"postedBy\":" + account + ",\"messageText\":\"benchmark\",\"timePostedEpoch\":1669947792}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.benchmark;
+
+import com.example.service.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verifications per second on one core at each PBKDF2 cost, which bounds logins per
+ * second per core: every successful login verifies one hash. Hashing a new password, as
+ * registration and rehash-on-login do, costs the same. Scale app.passwords.threads and the
+ * expected login rate from these numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"10000", "100000", "310000", "600000"})
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = new PasswordHasher(iterations, 1, 1);
+        stored = hasher.hash("password");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.matches("password", stored);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash("password");
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servlet + JPA against WebFlux + R2DBC on H2: the same HTTP calls against the default stack
+ * (Tomcat, SocialMediaController, MessageService) and the "reactive" profile (Netty,
+ * ReactiveSocialMediaController, ReactiveMessageService). The reactive path has no caches, so the
+ * servlet stack runs with spring.cache.type=none to compare the stacks rather than the caching.
+ * Raise the thread count with -t to compare them under concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ReactiveApiBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int MESSAGES = 100_000;
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "reactive".equals(stack)
+                ? BenchmarkApp.startWeb("spring.profiles.active=reactive")
+                : BenchmarkApp.startWeb("spring.cache.type=none");
+        BenchmarkApp.seed(context, ACCOUNTS, MESSAGES);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random seeded IDs.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int message() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(MESSAGES);
+        }
+
+        int account() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public int getMessageById(Ids ids) throws IOException, InterruptedException {
+        return get("/messages/" + ids.message());
+    }
+
+    @Benchmark
+    public int getMessagesByAccountId(Ids ids) throws IOException, InterruptedException {
+        return get("/accounts/" + ids.account() + "/messages");
+    }
+
+    @Benchmark
+    public int createMessage(Ids ids) throws IOException, InterruptedException {
+        int account = ids.account();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/messages?userId=" + account))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"postedBy\":" + account + ",\"messageText\":\"benchmark\",\"timePostedEpoch\":1669947792}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.benchmark;
+
+import com.example.dto.TimeRangePage;
+import com.example.entity.Message;
+import com.example.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading recent and old time windows from a year of messages, spread evenly over 1,000
+ * accounts (about 30 seconds apart by default). A window page reads only its slice of the
+ * (timePostedEpoch, messageId) or (postedBy, timePostedEpoch, messageId) index, so the last hour,
+ * the last day and the first day of the year should cost about the same.
+ * {@code accountWeekByFilter} is the alternative without range queries: load all of an account's
+ * messages and filter them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeRangeQueryBenchmark {
+
+    private static final long YEAR = 365L * 24 * 3600;
+    private static final long DAY = 24 * 3600;
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"1000000"})
+    public int messages;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private long end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApp.start("spring.cache.type=none");
+        long secondsApart = Math.max(1, YEAR / messages);
+        BenchmarkApp.seed(context, ACCOUNTS, messages, secondsApart);
+        messageService = context.getBean(MessageService.class);
+        end = BenchmarkApp.FIRST_EPOCH + messages * secondsApart;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per-thread source of random account IDs.
+     */
+    @State(Scope.Thread)
+    public static class Accounts {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int pick() {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public TimeRangePage lastHour() {
+        return messageService.getMessagesPostedBetween(end - 3600, null, null, 50);
+    }
+
+    @Benchmark
+    public TimeRangePage lastDay() {
+        return messageService.getMessagesPostedBetween(end - DAY, null, null, 50);
+    }
+
+    @Benchmark
+    public TimeRangePage firstDay() {
+        return messageService.getMessagesPostedBetween(BenchmarkApp.FIRST_EPOCH, BenchmarkApp.FIRST_EPOCH + DAY, null, 50);
+    }
+
+    @Benchmark
+    public TimeRangePage lastDaySecondPage() {
+        TimeRangePage first = messageService.getMessagesPostedBetween(end - DAY, null, null, 50);
+        return messageService.getMessagesPostedBetween(end - DAY, first.getNextUntil(), first.getNextCursor(), 50);
+    }
+
+    @Benchmark
+    public TimeRangePage accountLastWeek(Accounts accounts) {
+        return messageService.getMessagesPostedBetweenByAccountId(accounts.pick(), end - 7 * DAY, null, null, 50);
+    }
+
+    @Benchmark
+    public List<Message> accountWeekByFilter(Accounts accounts) {
+        List<Message> recent = new ArrayList<>();
+        for (Message message : messageService.getMessagesByAccountId(accounts.pick())) {
+            if (message.getTimePostedEpoch() >= end - 7 * DAY) {
+                recent.add(message);
+            }
+        }
+        return recent;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.benchmark;
+
+import com.example.dto.TrendingTopic;
+import com.example.service.TrendingCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of counting a hashtag on the write path and of reading the trending topics, with the
+ * default configuration (60 one-minute buckets, 4 x 4096 sketch, top 100). Hashtags are drawn
+ * from a Zipf distribution over 100,000 tags. Four writer threads count concurrently while one
+ * reader asks for the top 10, so the write numbers include contention on the hot tags' counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendingCounterBenchmark {
+
+    private static final int TAGS = 100_000;
+
+    private TrendingCounter counter;
+    private String[] tags;
+    private double[] cumulative;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        counter = new TrendingCounter(Duration.ofMinutes(1), 60, 4096, 4, 100, System::currentTimeMillis);
+        tags = new String[TAGS];
+        cumulative = new double[TAGS];
+        double sum = 0;
+        for (int i = 0; i < TAGS; i++) {
+            tags[i] = "tag" + i;
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < TAGS; i++) {
+            cumulative[i] /= sum;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            counter.add(pick(random));
+        }
+    }
+
+    /**
+     * Per-thread source of Zipf-distributed tags.
+     */
+    @State(Scope.Thread)
+    public static class Tags {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    @Group("trending")
+    @GroupThreads(4)
+    public void count(Tags source) {
+        counter.add(pick(source.random));
+    }
+
+    @Benchmark
+    @Group("trending")
+    @GroupThreads(1)
+    public List<TrendingTopic> top10() {
+        return counter.top(10);
+    }
+
+    private String pick(SplittableRandom random) {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        return tags[Math.min(TAGS - 1, found < 0 ? -found - 1 : found)];
+    }
+}
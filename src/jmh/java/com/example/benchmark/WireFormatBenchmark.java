@@ -0,0 +1,77 @@
+package com.example.benchmark;
+
+import com.example.entity.Message;
+import com.example.wire.MessageColumns;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding cost of a message list in each wire format, in ns per message, with the
+ * mappers Spring MVC uses for JSON, Smile and CBOR. {@code list=all} is a page of all messages
+ * (consecutive IDs, random posters); {@code list=account} is one account's messages (IDs and
+ * posting times further apart, one poster). The bytes per message of each format are printed at
+ * the start of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(WireFormatBenchmark.MESSAGES)
+public class WireFormatBenchmark {
+
+    static final int MESSAGES = 500;
+    private static final TypeReference<List<Message>> MESSAGE_LIST = new TypeReference<List<Message>>() {};
+
+    @Param({"json", "smile", "cbor", "columns"})
+    public String format;
+
+    @Param({"all", "account"})
+    public String list;
+
+    private ObjectMapper mapper;
+    private List<Message> messages;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> null;
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        messages = new ArrayList<>(MESSAGES);
+        int id = BenchmarkApp.FIRST_SEEDED_ID;
+        long time = BenchmarkApp.FIRST_EPOCH;
+        boolean oneAccount = "account".equals(list);
+        for (int i = 0; i < MESSAGES; i++) {
+            id += oneAccount ? 1 + random.nextInt(1000) : 1;
+            time += oneAccount ? random.nextInt(86_400) : random.nextInt(5);
+            int postedBy = oneAccount ? BenchmarkApp.FIRST_SEEDED_ID : BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(1000);
+            messages.add(new Message(id, postedBy, "benchmark message " + i + " about #topic" + random.nextInt(100), time));
+        }
+        encoded = encode();
+        System.out.printf("%n%s: %.1f bytes per message%n", format, (double) encoded.length / MESSAGES);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper == null ? MessageColumns.encode(messages) : mapper.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public List<Message> decode() throws IOException {
+        return mapper == null ? MessageColumns.decode(encoded, MESSAGES) : mapper.readValue(encoded, MESSAGE_LIST);
+    }
+}
@@ -4,7 +4,9 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.client.RestTemplate;
 
@@ -12,8 +14,11 @@ import static org.springframework.boot.SpringApplication.run;
 
 /**
  * Main application class for starting the Social Media API.
+ * Caching advice is ordered outside the transactional advice so that any
+ * annotation-driven cache eviction happens only after the surrounding transaction has committed.
  */
 @SpringBootApplication
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class SocialMediaApp {
     /**
      * Entry point for the application.
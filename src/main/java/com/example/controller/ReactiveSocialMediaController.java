@@ -0,0 +1,281 @@
+package com.example.controller;
+
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.exception.DuplicateUsernameException;
+import com.example.service.ReactiveAccountService;
+import com.example.service.ReactiveFeedService;
+import com.example.service.ReactiveMessageService;
+import com.example.service.TagService;
+import com.example.service.TokenService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive (WebFlux) version of {@link SocialMediaController}, active with the "reactive" profile.
+ * Every route, status code and response body matches the servlet controller. Message lists are
+ * streamed from the database: as a JSON array by default, or one message per line when the client
+ * accepts application/x-ndjson.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveSocialMediaController {
+    @Autowired
+    private ReactiveAccountService accountService;
+    @Autowired
+    private ReactiveMessageService messageService;
+    @Autowired
+    private ReactiveFeedService feedService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private TagService tagService;
+
+    /**
+     * Registers a new account.
+     * - Returns the created account as JSON with HTTP 200 on success.
+     * - Returns HTTP 409 (Conflict) if the username already exists.
+     * - Returns HTTP 400 (Bad Request) for other registration failures.
+     * - Returns HTTP 503 (Service Unavailable) if too many passwords are waiting to be hashed.
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody Account account) {
+        return accountService.registerAccount(account)
+                .<ResponseEntity<?>>map(saved -> ResponseEntity.status(200).body(saved))
+                .defaultIfEmpty(ResponseEntity.status(400).body("Registration failed"))
+                .onErrorResume(DuplicateUsernameException.class,
+                        e -> Mono.just(ResponseEntity.status(409).body("Duplicate username")))
+                .onErrorResume(RejectedExecutionException.class,
+                        e -> Mono.just(ResponseEntity.status(503).body("Server busy")));
+    }
+
+    /**
+     * Authenticates a user.
+     * - Returns the account as JSON with HTTP 200 on successful login, and a session token in the
+     *   `X-Auth-Token` header.
+     * - Returns HTTP 401 (Unauthorized) if authentication fails.
+     * - Returns HTTP 503 (Service Unavailable) if too many passwords are waiting to be verified.
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody Account login) {
+        return accountService.login(login)
+                .<ResponseEntity<?>>map(account -> ResponseEntity.status(200)
+                        .header(SocialMediaController.AUTH_TOKEN_HEADER, tokenService.issue(account.getAccountId()))
+                        .body(account))
+                .defaultIfEmpty(ResponseEntity.status(401).body(""))
+                .onErrorResume(RejectedExecutionException.class,
+                        e -> Mono.just(ResponseEntity.status(503).body("Server busy")));
+    }
+
+    /**
+     * Ends a session by revoking the token in the `Authorization: Bearer` header.
+     * - Returns 1 with HTTP 200 if the token was revoked.
+     * - Returns HTTP 401 (Unauthorized) if the token is missing, invalid or expired.
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<?>> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (tokenService.revoke(authorization) == null) {
+            return Mono.just(ResponseEntity.status(401).body(""));
+        }
+        return Mono.just(ResponseEntity.status(200).body(1));
+    }
+
+    /**
+     * Creates a new message.
+     * - With an `Authorization: Bearer` session token, posts as the token's account without
+     *   looking the account up. Returns HTTP 401 (Unauthorized) if the token is invalid or expired.
+     * - Without a token, posts as the `postedBy` of the body; the optional `userId` query
+     *   parameter must be the same account.
+     * - Returns the created message as JSON with HTTP 200 on success.
+     * - Returns HTTP 400 (Bad Request) if message creation fails.
+     */
+    @PostMapping("/messages")
+    public Mono<ResponseEntity<?>> createMessage(@RequestBody Message message,
+                                                 @RequestParam(required = false) Integer userId,
+                                                 @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization != null) {
+            Integer accountId = tokenService.authenticate(authorization);
+            if (accountId == null) {
+                return Mono.just(ResponseEntity.status(401).body(""));
+            }
+            return ok(messageService.createMessageAs(message, accountId));
+        }
+        return ok(messageService.createMessage(message, userId));
+    }
+
+    /**
+     * Creates several messages from a JSON array, each posted by its own `postedBy` user.
+     * - Returns HTTP 200 with one result per item, in request order.
+     * - Returns HTTP 400 (Bad Request) if the array is empty or larger than 1000 items.
+     */
+    @PostMapping("/messages/batch")
+    public Mono<ResponseEntity<?>> createMessages(@RequestBody List<Message> messages) {
+        return ok(messageService.createMessages(messages));
+    }
+
+    /**
+     * Retrieves all messages, streamed as a JSON array or as newline-delimited JSON.
+     * - If `after` or `limit` is given, returns one page of messages and the next cursor instead.
+     * - If `since` or `until` is given, returns one newest-first page of the messages posted in that range.
+     * - Returns HTTP 400 (Bad Request) if the page limit, range or cursor is invalid.
+     */
+    @GetMapping(value = "/messages", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<?>> getAllMessages(@RequestParam(required = false) Integer after,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) Long since,
+                                                  @RequestParam(required = false) Long until,
+                                                  @RequestParam(required = false) Integer before) {
+        if (since != null || until != null || before != null) {
+            return ok(messageService.getMessagesPostedBetween(since, until, before, limit));
+        }
+        if (after != null || limit != null) {
+            return ok(messageService.getMessagePage(after, limit));
+        }
+        return Mono.just(ResponseEntity.status(200).body(messageService.getAllMessages()));
+    }
+
+    /**
+     * Exports every message as newline-delimited JSON, streamed while rows are read.
+     */
+    @GetMapping(value = "/messages/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Message> exportMessages() {
+        return messageService.getAllMessages();
+    }
+
+    /**
+     * Searches message text for every term and double-quoted phrase of `q`, best match first.
+     * - Returns the page, the total number of matches and the next offset as JSON with HTTP 200.
+     * - Returns HTTP 400 (Bad Request) if `q` is blank or the offset or limit is out of range.
+     */
+    @GetMapping("/messages/search")
+    public Mono<ResponseEntity<?>> searchMessages(@RequestParam(required = false) String q,
+                                                  @RequestParam(required = false) Integer offset,
+                                                  @RequestParam(required = false) Integer limit) {
+        return ok(messageService.searchMessages(q, offset, limit));
+    }
+
+    /**
+     * Retrieves a message by its ID.
+     * - Returns the message as JSON with HTTP 200 if found.
+     * - Returns an empty response with HTTP 200 if not found.
+     */
+    @GetMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<?>> getMessageById(@PathVariable Integer messageId) {
+        return messageService.getMessageById(messageId)
+                .<ResponseEntity<?>>map(message -> ResponseEntity.status(200).body(message))
+                .defaultIfEmpty(ResponseEntity.status(200).build());
+    }
+
+    /**
+     * Deletes a message by its ID.
+     * - Returns 1 with HTTP 200 if the message was deleted.
+     * - Returns an empty response with HTTP 200 if the message does not exist.
+     */
+    @DeleteMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<?>> deleteMessageById(@PathVariable Integer messageId) {
+        return messageService.deleteMessageById(messageId)
+                .<ResponseEntity<?>>map(message -> ResponseEntity.status(200).body(1))
+                .defaultIfEmpty(ResponseEntity.status(200).body(""));
+    }
+
+    /**
+     * Updates a message by its ID from the `messageText` field of the JSON body.
+     * - Returns 1 with HTTP 200 if the update is successful.
+     * - Returns 0 with HTTP 400 if the update fails.
+     */
+    @PatchMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<?>> UpdateMessageById(@PathVariable Integer messageId, @RequestBody Message newMessage) {
+        return messageService.updateMessageById(messageId, newMessage.getMessageText())
+                .<ResponseEntity<?>>map(message -> ResponseEntity.status(200).body(1))
+                .defaultIfEmpty(ResponseEntity.status(400).body(0));
+    }
+
+    /**
+     * Retrieves all messages posted by a specific user, streamed as a JSON array or as newline-delimited JSON.
+     * - If `after` or `limit` is given, returns one page of messages and the next cursor instead.
+     * - If `since` or `until` is given, returns one newest-first page of the user's messages posted in that range.
+     * - Returns HTTP 400 (Bad Request) if the page limit, range or cursor is invalid.
+     */
+    @GetMapping(value = "accounts/{accountId}/messages", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<?>> getMessagesByAccountId(@PathVariable Integer accountId,
+                                                          @RequestParam(required = false) Integer after,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) Long since,
+                                                          @RequestParam(required = false) Long until,
+                                                          @RequestParam(required = false) Integer before) {
+        if (since != null || until != null || before != null) {
+            return ok(messageService.getMessagesPostedBetweenByAccountId(accountId, since, until, before, limit));
+        }
+        if (after != null || limit != null) {
+            return ok(messageService.getMessagePageByAccountId(accountId, after, limit));
+        }
+        return Mono.just(ResponseEntity.status(200).body(messageService.getMessagesByAccountId(accountId)));
+    }
+
+    /**
+     * Makes one account follow another.
+     * - Returns the follow relationship as JSON with HTTP 200 on success, including if it already existed.
+     * - Returns HTTP 400 (Bad Request) if either account does not exist or both IDs are the same.
+     */
+    @PostMapping("accounts/{accountId}/following/{followeeId}")
+    public Mono<ResponseEntity<?>> follow(@PathVariable Integer accountId, @PathVariable Integer followeeId) {
+        return ok(feedService.follow(accountId, followeeId));
+    }
+
+    /**
+     * Removes a follow relationship.
+     * - Returns 1 with HTTP 200 if the relationship was removed.
+     * - Returns an empty response with HTTP 200 if it did not exist.
+     */
+    @DeleteMapping("accounts/{accountId}/following/{followeeId}")
+    public Mono<ResponseEntity<?>> unfollow(@PathVariable Integer accountId, @PathVariable Integer followeeId) {
+        return feedService.unfollow(accountId, followeeId)
+                .<ResponseEntity<?>>map(follow -> ResponseEntity.status(200).body(1))
+                .defaultIfEmpty(ResponseEntity.status(200).body(""));
+    }
+
+    /**
+     * Retrieves one page of a user's home feed, newest first by posting time.
+     * - Returns the page and the next cursor as JSON with HTTP 200.
+     * - Returns HTTP 400 (Bad Request) if the page limit is out of range or only one of `until` and `before` is given.
+     */
+    @GetMapping("accounts/{accountId}/feed")
+    public Mono<ResponseEntity<?>> getFeed(@PathVariable Integer accountId,
+                                           @RequestParam(required = false) Long until,
+                                           @RequestParam(required = false) Integer before,
+                                           @RequestParam(required = false) Integer limit) {
+        return ok(feedService.getFeed(accountId, until, before, limit));
+    }
+
+    /**
+     * Retrieves the hashtags, or with `type=mentions` the mentioned usernames, used most in the
+     * trending window, most used first. The counters are in memory, so this does not block.
+     * - Returns a list of topics with their estimated counts as JSON with HTTP 200.
+     * - Returns HTTP 400 (Bad Request) if the type is unknown or the limit is out of range.
+     */
+    @GetMapping("/trending")
+    public Mono<ResponseEntity<?>> getTrending(@RequestParam(required = false) String type,
+                                               @RequestParam(required = false) Integer limit) {
+        return ok(Mono.justOrEmpty(tagService.getTrending(type, limit)));
+    }
+
+    /**
+     * Maps a result to HTTP 200, or an empty result to HTTP 400 with "Client Error".
+     */
+    private static Mono<ResponseEntity<?>> ok(Mono<?> result) {
+        return result
+                .<ResponseEntity<?>>map(body -> ResponseEntity.status(200).body(body))
+                .defaultIfEmpty(ResponseEntity.status(400).body("Client Error"));
+    }
+}
@@ -1,16 +1,40 @@
 package com.example.controller;
 
+import com.example.dto.MessageBatchResult;
+import com.example.dto.MessagePage;
+import com.example.dto.SearchPage;
+import com.example.dto.TimeRangePage;
+import com.example.dto.TrendingTopic;
 import com.example.entity.Account;
+import com.example.entity.Follow;
 import com.example.entity.Message;
 import com.example.exception.DuplicateUsernameException;
 import com.example.service.AccountService;
+import com.example.service.FeedService;
+import com.example.service.MessageIngestService;
 import com.example.service.MessageService;
+import com.example.service.MessageVersions;
+import com.example.service.SearchService;
+import com.example.service.TagService;
+import com.example.service.TokenService;
+import com.example.wire.MessageList;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 /**
  * SocialMediaController provides REST endpoints for account registration, authentication,
  * and message management within the social media application.
@@ -18,76 +42,211 @@ import java.util.List;
  */
 
 @RestController
+@Profile("!reactive")
 public class SocialMediaController {
+    /**
+     * Response header of a successful login that carries the session token.
+     */
+    public static final String AUTH_TOKEN_HEADER = "X-Auth-Token";
+
     @Autowired
     private AccountService accountService;
     @Autowired
     private MessageService messageService;
+    @Autowired
+    private MessageIngestService ingestService;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private MessageVersions messageVersions;
+
+    @Value("${app.export.timeout:30m}")
+    private Duration exportTimeout;
 
     /**
      * Registers a new account.
      * - Returns the created account as JSON with HTTP 200 on success.
      * - Returns HTTP 409 (Conflict) if the username already exists.
      * - Returns HTTP 400 (Bad Request) for other registration failures.
+     * - Returns HTTP 503 (Service Unavailable) if too many passwords are waiting to be hashed.
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Account account) {
-        try {
-            Account saveAccount = accountService.registerAccount(account);
-            if (saveAccount != null) {
-                return ResponseEntity.status(200).body(saveAccount);
-            }
-        } catch (DuplicateUsernameException e) {
-            return ResponseEntity.status(409).body("Duplicate username");
-        }
-        return ResponseEntity.status(400).body("Registration failed");
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody Account account) {
+        return accountService.registerAccount(account)
+                .<ResponseEntity<?>>thenApply(saveAccount -> saveAccount != null
+                        ? ResponseEntity.status(200).body(saveAccount)
+                        : ResponseEntity.status(400).body("Registration failed"))
+                .exceptionally(e -> {
+                    if (causeOf(e) instanceof DuplicateUsernameException) {
+                        return ResponseEntity.status(409).body("Duplicate username");
+                    }
+                    return busy(e);
+                });
     }
 
     /**
      * Authenticates a user.
-     * - Returns the account as JSON with HTTP 200 on successful login.
+     * - Returns the account as JSON with HTTP 200 on successful login, and a session token for
+     *   the `Authorization: Bearer` header of later requests in the `X-Auth-Token` header.
      * - Returns HTTP 401 (Unauthorized) if authentication fails.
+     * - Returns HTTP 503 (Service Unavailable) if too many passwords are waiting to be verified.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Account login) {
-        Account account = accountService.login(login);
-        if (account == null) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Account login) {
+        return accountService.login(login)
+                .<ResponseEntity<?>>thenApply(account -> account != null
+                        ? ResponseEntity.status(200).header(AUTH_TOKEN_HEADER, tokenService.issue(account.getAccountId())).body(account)
+                        : ResponseEntity.status(401).body(""))
+                .exceptionally(SocialMediaController::busy);
+    }
+
+    /**
+     * Ends a session by revoking the token in the `Authorization: Bearer` header.
+     * - Returns 1 with HTTP 200 if the token was revoked.
+     * - Returns HTTP 401 (Unauthorized) if the token is missing, invalid or expired.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (tokenService.revoke(authorization) == null) {
             return ResponseEntity.status(401).body("");
         }
-        return ResponseEntity.status(200).body(account);
+        return ResponseEntity.status(200).body(1);
     }
 
     /**
      * Creates a new message.
+     * - With an `Authorization: Bearer` session token, posts as the token's account without
+     *   looking the account up. Returns HTTP 401 (Unauthorized) if the token is invalid or expired.
+     * - Without a token, posts as the `postedBy` of the body; the optional `userId` query
+     *   parameter must be the same account.
      * - Returns the created message as JSON with HTTP 200 on success.
      * - Returns HTTP 400 (Bad Request) if message creation fails.
+     * - With write-behind ingestion (`app.ingest.enabled`), the message is queued and the response
+     *   is sent once its batch has committed. Returns HTTP 429 (Too Many Requests) if the queue is full.
      */
     @PostMapping("/messages")
-    public ResponseEntity<?> createMessage(@RequestBody Message message, @RequestParam Integer userId) {
-        Message newMessage = messageService.createMessage(message, userId);
-        if (newMessage == null) {
+    public CompletableFuture<ResponseEntity<?>> createMessage(@RequestBody Message message,
+                                                              @RequestParam(required = false) Integer userId,
+                                                              @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Integer accountId = null;
+        if (authorization != null) {
+            accountId = tokenService.authenticate(authorization);
+            if (accountId == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(401).body(""));
+            }
+        }
+        if (ingestService.isEnabled()) {
+            CompletableFuture<Message> queued = accountId != null
+                    ? ingestService.submitAs(message, accountId)
+                    : ingestService.submit(message, userId);
+            return queued.thenApply(SocialMediaController::created)
+                    .exceptionally(SocialMediaController::tooManyRequests);
+        }
+        Message newMessage = accountId != null
+                ? messageService.createMessageAs(message, accountId)
+                : messageService.createMessage(message, userId);
+        return CompletableFuture.completedFuture(created(newMessage));
+    }
+
+    /**
+     * Creates several messages from a JSON array, each posted by its own `postedBy` user.
+     * - Returns HTTP 200 with one result per item, in request order. Each result has
+     *   status 200 and the created message, or status 400 if that item was invalid.
+     * - Returns HTTP 400 (Bad Request) if the array is empty or larger than 1000 items.
+     */
+    @PostMapping("/messages/batch")
+    public ResponseEntity<?> createMessages(@RequestBody List<Message> messages) {
+        List<MessageBatchResult> results = messageService.createMessages(messages);
+        if (results == null) {
             return ResponseEntity.status(400).body("Client Error");
         }
-        return ResponseEntity.status(200).body(newMessage);
+        return ResponseEntity.status(200).body(results);
     }
 
     /**
      * Retrieves all messages.
      * - Returns a list of messages (possibly empty) as JSON with HTTP 200.
+     * - If `after` or `limit` is given, returns one page of messages and the next cursor instead.
+     * - If `since` or `until` is given, returns one page of the messages posted in that range of epoch
+     *   seconds (`since` inclusive, `until` exclusive), newest first, with `nextUntil` and `nextCursor`.
+     *   Pass them as `until` and `before` for the next page.
+     * - Returns HTTP 400 (Bad Request) if the page limit is out of range, `since` is after `until`,
+     *   or `before` is given without `until`.
      */
     @GetMapping("/messages")
-    public ResponseEntity<?> getAllMessages() {
+    public ResponseEntity<?> getAllMessages(@RequestParam(required = false) Integer after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) Long since,
+                                            @RequestParam(required = false) Long until,
+                                            @RequestParam(required = false) Integer before) {
+        if (since != null || until != null || before != null) {
+            TimeRangePage page = messageService.getMessagesPostedBetween(since, until, before, limit);
+            if (page == null) {
+                return ResponseEntity.status(400).body("Client Error");
+            }
+            return ResponseEntity.status(200).body(page);
+        }
+        if (after != null || limit != null) {
+            MessagePage page = messageService.getMessagePage(after, limit);
+            if (page == null) {
+                return ResponseEntity.status(400).body("Client Error");
+            }
+            return ResponseEntity.status(200).body(page);
+        }
         List<Message> messages = messageService.getAllMessages();
-        return ResponseEntity.status(200).body(messages); 
+        return ResponseEntity.status(200).body(new MessageList(messages));
+    }
+
+    /**
+     * Exports every message as newline-delimited JSON (one message object per line).
+     * - Streams the response with HTTP 200 while rows are read, so memory use does not grow with the table.
+     * - The stream may run for `app.export.timeout`; other asynchronous requests keep the default timeout.
+     */
+    @GetMapping(value = "/messages/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportMessages(WebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        StreamingResponseBody body = out -> messageService.exportMessages(out);
+        return ResponseEntity.status(200)
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Searches message text for every term and double-quoted phrase of `q`, best match first.
+     * - Returns the page, the total number of matches and the next offset as JSON with HTTP 200.
+     *   Pass `nextOffset` as `offset` for the next page.
+     * - Returns HTTP 400 (Bad Request) if `q` is blank or the offset or limit is out of range.
+     */
+    @GetMapping("/messages/search")
+    public ResponseEntity<?> searchMessages(@RequestParam(required = false) String q,
+                                            @RequestParam(required = false) Integer offset,
+                                            @RequestParam(required = false) Integer limit) {
+        SearchPage page = searchService.search(q, offset, limit);
+        if (page == null) {
+            return ResponseEntity.status(400).body("Client Error");
+        }
+        return ResponseEntity.status(200).body(page);
     }
 
     /**
      * Retrieves a message by its ID.
      * - Returns the message as JSON with HTTP 200 if found.
      * - Returns an empty response with HTTP 200 if not found.
+     * - Sends a strong ETag, and returns HTTP 304 (Not Modified) without loading the message if
+     *   `If-None-Match` has the current one.
      */
     @GetMapping("/messages/{messageId}")
-    public ResponseEntity<?> getMessageById(@PathVariable Integer messageId) {
+    public ResponseEntity<?> getMessageById(@PathVariable Integer messageId, WebRequest request) {
+        String etag = messageVersions.messageTag(messageId, request.getHeader(HttpHeaders.ACCEPT));
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         Message message = messageService.getMessageById(messageId);
         return ResponseEntity.status(200).body(message);
     }
@@ -109,12 +268,13 @@ public class SocialMediaController {
 
     /**
      * Updates a message by its ID.
+     * - Reads the new text from the `messageText` field of the JSON body.
      * - Returns 1 with HTTP 200 if the update is successful.
      * - Returns 0 with HTTP 400 if the update fails.
      */
     @PatchMapping("/messages/{messageId}")
-    public ResponseEntity<?> UpdateMessageById(@PathVariable Integer messageId, @RequestBody String newMessageText) {
-        Message message = messageService.updateMessageById(messageId, newMessageText);
+    public ResponseEntity<?> UpdateMessageById(@PathVariable Integer messageId, @RequestBody Message newMessage) {
+        Message message = messageService.updateMessageById(messageId, newMessage.getMessageText());
         if (message == null) {
             return ResponseEntity.status(400).body(0);
         }
@@ -124,10 +284,139 @@ public class SocialMediaController {
     /**
      * Retrieves all messages posted by a specific user.
      * - Returns a list of messages (possibly empty) as JSON with HTTP 200.
+     * - If `after` or `limit` is given, returns one page of messages and the next cursor instead.
+     * - If `since` or `until` is given, returns one page of the user's messages posted in that range,
+     *   as for GET /messages.
+     * - Returns HTTP 400 (Bad Request) if the page limit, range or cursor is invalid.
+     * - Sends a strong ETag that changes with any of the user's messages, and returns HTTP 304
+     *   (Not Modified) without loading them if `If-None-Match` has the current one.
      */
     @GetMapping("accounts/{accountId}/messages")
-    public ResponseEntity<?> getMessagesByAccountId(@PathVariable Integer accountId) {
+    public ResponseEntity<?> getMessagesByAccountId(@PathVariable Integer accountId,
+                                                    @RequestParam(required = false) Integer after,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long since,
+                                                    @RequestParam(required = false) Long until,
+                                                    @RequestParam(required = false) Integer before,
+                                                    WebRequest request) {
+        String etag = messageVersions.accountTag(accountId, request.getHeader(HttpHeaders.ACCEPT));
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        if (since != null || until != null || before != null) {
+            TimeRangePage page = messageService.getMessagesPostedBetweenByAccountId(accountId, since, until, before, limit);
+            if (page == null) {
+                return ResponseEntity.status(400).body("Client Error");
+            }
+            return ResponseEntity.status(200).body(page);
+        }
+        if (after != null || limit != null) {
+            MessagePage page = messageService.getMessagePageByAccountId(accountId, after, limit);
+            if (page == null) {
+                return ResponseEntity.status(400).body("Client Error");
+            }
+            return ResponseEntity.status(200).body(page);
+        }
         List<Message> messages = messageService.getMessagesByAccountId(accountId);
-        return ResponseEntity.status(200).body(messages);
+        return ResponseEntity.status(200).body(new MessageList(messages));
+    }
+
+    /**
+     * Makes one account follow another.
+     * - Returns the follow relationship as JSON with HTTP 200 on success, including if it already existed.
+     * - Returns HTTP 400 (Bad Request) if either account does not exist or both IDs are the same.
+     */
+    @PostMapping("accounts/{accountId}/following/{followeeId}")
+    public ResponseEntity<?> follow(@PathVariable Integer accountId, @PathVariable Integer followeeId) {
+        Follow follow = feedService.follow(accountId, followeeId);
+        if (follow == null) {
+            return ResponseEntity.status(400).body("Client Error");
+        }
+        return ResponseEntity.status(200).body(follow);
+    }
+
+    /**
+     * Removes a follow relationship.
+     * - Returns 1 with HTTP 200 if the relationship was removed.
+     * - Returns an empty response with HTTP 200 if it did not exist.
+     */
+    @DeleteMapping("accounts/{accountId}/following/{followeeId}")
+    public ResponseEntity<?> unfollow(@PathVariable Integer accountId, @PathVariable Integer followeeId) {
+        Follow follow = feedService.unfollow(accountId, followeeId);
+        if (follow != null) {
+            return ResponseEntity.status(200).body(1);
+        }
+        return ResponseEntity.status(200).body("");
+    }
+
+    /**
+     * Retrieves one page of a user's home feed: their own messages and those of the accounts they follow,
+     * newest first by posting time.
+     * - Returns the page and the next cursor as JSON with HTTP 200. Pass `nextUntil` as `until` and
+     *   `nextCursor` as `before` for the next page.
+     * - Returns HTTP 400 (Bad Request) if the page limit is out of range or only one of `until` and `before` is given.
+     */
+    @GetMapping("accounts/{accountId}/feed")
+    public ResponseEntity<?> getFeed(@PathVariable Integer accountId,
+                                     @RequestParam(required = false) Long until,
+                                     @RequestParam(required = false) Integer before,
+                                     @RequestParam(required = false) Integer limit) {
+        TimeRangePage page = feedService.getFeed(accountId, until, before, limit);
+        if (page == null) {
+            return ResponseEntity.status(400).body("Client Error");
+        }
+        return ResponseEntity.status(200).body(page);
+    }
+
+    /**
+     * Retrieves the hashtags, or with `type=mentions` the mentioned usernames, used most in the
+     * trending window, most used first.
+     * - Returns a list of topics with their estimated counts as JSON with HTTP 200.
+     * - Returns HTTP 400 (Bad Request) if the type is unknown or the limit is out of range.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrending(@RequestParam(required = false) String type,
+                                         @RequestParam(required = false) Integer limit) {
+        List<TrendingTopic> topics = tagService.getTrending(type, limit);
+        if (topics == null) {
+            return ResponseEntity.status(400).body("Client Error");
+        }
+        return ResponseEntity.status(200).body(topics);
+    }
+
+    /**
+     * Maps a created message to HTTP 200, or a rejected one to HTTP 400.
+     */
+    private static ResponseEntity<?> created(Message message) {
+        if (message == null) {
+            return ResponseEntity.status(400).body("Client Error");
+        }
+        return ResponseEntity.status(200).body(message);
+    }
+
+    /**
+     * Maps a full ingest queue to HTTP 429 with Retry-After and rethrows any other failure.
+     */
+    private static ResponseEntity<?> tooManyRequests(Throwable e) {
+        Throwable cause = causeOf(e);
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, "1").body("Too many requests");
+        }
+        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(cause);
+    }
+
+    /**
+     * Maps a full password hashing queue to HTTP 503 and rethrows any other failure.
+     */
+    private static ResponseEntity<?> busy(Throwable e) {
+        Throwable cause = causeOf(e);
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(503).body("Server busy");
+        }
+        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(cause);
+    }
+
+    private static Throwable causeOf(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+
+/**
+ * Outcome of one item of a batch message creation request.
+ * Items are reported in request order with the same status codes the single-message
+ * endpoint would have returned for them.
+ */
+public class MessageBatchResult {
+    /**
+     * Position of the item in the request array.
+     */
+    private int index;
+    /**
+     * HTTP-style status for the item: 200 if created, 400 if rejected.
+     */
+    private int status;
+    /**
+     * The created message, or null if the item was rejected.
+     */
+    private Message message;
+    /**
+     * Default no-argument constructor required for serialization.
+     */
+    public MessageBatchResult() {
+    }
+    /**
+     * Constructor for creating a result with all fields.
+     * @param index the position of the item in the request
+     * @param status the status for the item
+     * @param message the created message, or null
+     */
+    public MessageBatchResult(int index, int status, Message message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+    /**
+     * Gets the position of the item in the request.
+     * @return index
+     */
+    public int getIndex() {
+        return index;
+    }
+    /**
+     * Sets the position of the item in the request.
+     * @param index the position
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    /**
+     * Gets the status for the item.
+     * @return status
+     */
+    public int getStatus() {
+        return status;
+    }
+    /**
+     * Sets the status for the item.
+     * @param status the status
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+    /**
+     * Gets the created message.
+     * @return message
+     */
+    public Message getMessage() {
+        return message;
+    }
+    /**
+     * Sets the created message.
+     * @param message the message
+     */
+    public void setMessage(Message message) {
+        this.message = message;
+    }
+    /**
+     * Returns a string representation of the result.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "MessageBatchResult{" +
+                "index=" + index +
+                ", status=" + status +
+                ", message=" + message +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+
+import java.util.List;
+
+/**
+ * A single page of messages returned by the keyset-paginated endpoints.
+ * Pages are ordered by message ID, ascending for message lists and descending for feeds;
+ * the next page is requested by passing {@code nextCursor} back as the endpoint's cursor
+ * parameter ({@code after} or {@code before}).
+ */
+public class MessagePage {
+    /**
+     * The messages on this page, in the endpoint's message ID order.
+     */
+    private List<Message> messages;
+    /**
+     * The message ID to continue from, or null if this is the last page.
+     */
+    private Integer nextCursor;
+    /**
+     * Default no-argument constructor required for serialization.
+     */
+    public MessagePage() {
+    }
+    /**
+     * Constructor for creating a page with all fields.
+     * @param messages the messages on this page
+     * @param nextCursor the cursor for the next page, or null if there is none
+     */
+    public MessagePage(List<Message> messages, Integer nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+    /**
+     * Gets the messages on this page.
+     * @return messages
+     */
+    public List<Message> getMessages() {
+        return messages;
+    }
+    /**
+     * Sets the messages on this page.
+     * @param messages the messages
+     */
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+    /**
+     * Gets the cursor for the next page.
+     * @return nextCursor
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+    /**
+     * Sets the cursor for the next page.
+     * @param nextCursor the cursor
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    /**
+     * Returns a string representation of the page.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "MessagePage{" +
+                "messages=" + messages +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
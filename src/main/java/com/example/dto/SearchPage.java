@@ -0,0 +1,94 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+
+import java.util.List;
+
+/**
+ * A single page of full-text search results, best match first.
+ * The next page is requested by passing {@code nextOffset} back as the {@code offset} parameter.
+ */
+public class SearchPage {
+    /**
+     * The matching messages on this page, best match first.
+     */
+    private List<Message> messages;
+    /**
+     * The number of messages matching the query.
+     */
+    private int total;
+    /**
+     * The offset of the next page, or null if this is the last page.
+     */
+    private Integer nextOffset;
+    /**
+     * Default no-argument constructor required for serialization.
+     */
+    public SearchPage() {
+    }
+    /**
+     * Constructor for creating a page with all fields.
+     * @param messages the matching messages on this page
+     * @param total the number of matching messages
+     * @param nextOffset the offset of the next page, or null if there is none
+     */
+    public SearchPage(List<Message> messages, int total, Integer nextOffset) {
+        this.messages = messages;
+        this.total = total;
+        this.nextOffset = nextOffset;
+    }
+    /**
+     * Gets the matching messages on this page.
+     * @return messages
+     */
+    public List<Message> getMessages() {
+        return messages;
+    }
+    /**
+     * Sets the matching messages on this page.
+     * @param messages the messages
+     */
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+    /**
+     * Gets the number of matching messages.
+     * @return total
+     */
+    public int getTotal() {
+        return total;
+    }
+    /**
+     * Sets the number of matching messages.
+     * @param total the total
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    /**
+     * Gets the offset of the next page.
+     * @return nextOffset
+     */
+    public Integer getNextOffset() {
+        return nextOffset;
+    }
+    /**
+     * Sets the offset of the next page.
+     * @param nextOffset the offset
+     */
+    public void setNextOffset(Integer nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+    /**
+     * Returns a string representation of the page.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "SearchPage{" +
+                "messages=" + messages +
+                ", total=" + total +
+                ", nextOffset=" + nextOffset +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+
+import java.util.List;
+
+/**
+ * A single page of messages returned by the time-range endpoints.
+ * Pages are ordered newest first by posting time, then by message ID; the next page is requested
+ * by passing {@code nextUntil} back as {@code until} and {@code nextCursor} as {@code before},
+ * with the same {@code since}.
+ */
+public class TimeRangePage {
+    /**
+     * The messages on this page, newest first.
+     */
+    private List<Message> messages;
+    /**
+     * The posting time of the last message on this page, or null if this is the last page.
+     */
+    private Long nextUntil;
+    /**
+     * The message ID of the last message on this page, or null if this is the last page.
+     */
+    private Integer nextCursor;
+    /**
+     * Default no-argument constructor required for serialization.
+     */
+    public TimeRangePage() {
+    }
+    /**
+     * Constructor for creating a page with all fields.
+     * @param messages the messages on this page
+     * @param nextUntil the posting time to continue from, or null if there is no next page
+     * @param nextCursor the message ID to continue below, or null if there is no next page
+     */
+    public TimeRangePage(List<Message> messages, Long nextUntil, Integer nextCursor) {
+        this.messages = messages;
+        this.nextUntil = nextUntil;
+        this.nextCursor = nextCursor;
+    }
+    /**
+     * Gets the messages on this page.
+     * @return messages
+     */
+    public List<Message> getMessages() {
+        return messages;
+    }
+    /**
+     * Sets the messages on this page.
+     * @param messages the messages
+     */
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+    /**
+     * Gets the posting time to continue from.
+     * @return nextUntil
+     */
+    public Long getNextUntil() {
+        return nextUntil;
+    }
+    /**
+     * Sets the posting time to continue from.
+     * @param nextUntil the posting time
+     */
+    public void setNextUntil(Long nextUntil) {
+        this.nextUntil = nextUntil;
+    }
+    /**
+     * Gets the message ID to continue below.
+     * @return nextCursor
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+    /**
+     * Sets the message ID to continue below.
+     * @param nextCursor the cursor
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    /**
+     * Returns a string representation of the page.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "TimeRangePage{" +
+                "messages=" + messages +
+                ", nextUntil=" + nextUntil +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.dto;
+
+import java.util.Objects;
+
+/**
+ * A hashtag or mentioned username with its estimated number of uses in the trending window.
+ */
+public class TrendingTopic {
+    /**
+     * The hashtag or username, without the leading {@code #} or {@code @}.
+     */
+    private String topic;
+    /**
+     * Estimated uses in the window; may overcount slightly, never undercounts.
+     */
+    private long count;
+    /**
+     * Default no-argument constructor required for serialization.
+     */
+    public TrendingTopic() {
+    }
+    /**
+     * Constructor for creating a topic with all fields.
+     * @param topic the hashtag or username
+     * @param count the estimated number of uses
+     */
+    public TrendingTopic(String topic, long count) {
+        this.topic = topic;
+        this.count = count;
+    }
+    /**
+     * Gets the topic.
+     * @return topic
+     */
+    public String getTopic() {
+        return topic;
+    }
+    /**
+     * Sets the topic.
+     * @param topic the topic
+     */
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+    /**
+     * Gets the estimated number of uses.
+     * @return count
+     */
+    public long getCount() {
+        return count;
+    }
+    /**
+     * Sets the estimated number of uses.
+     * @param count the count
+     */
+    public void setCount(long count) {
+        this.count = count;
+    }
+    /**
+     * Checks equality based on the topic and count.
+     * @param obj the other object
+     * @return true if equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        TrendingTopic other = (TrendingTopic) obj;
+        return count == other.count && Objects.equals(topic, other.topic);
+    }
+    /**
+     * Generates a hash code based on the topic and count.
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(topic, count);
+    }
+    /**
+     * Returns a string representation of the topic.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "TrendingTopic{" +
+                "topic='" + topic + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.entity;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 
 /**
  * Entity representing a user account in the system.
@@ -12,11 +12,13 @@ import javax.persistence.*;
 @Table(name="account")
 public class Account {
     /**
-     * Unique identifier for the account.
+     * Unique identifier for the account, drawn from the account_seq sequence
+     * in blocks of 50 by the pooled optimizer.
      */
     @Column(name="accountId")
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Integer accountId;
     /**
      * Unique username for the account. Cannot be blank.
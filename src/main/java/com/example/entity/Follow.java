@@ -0,0 +1,78 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing one account following another.
+ * The follower sees the followee's messages in their feed.
+ */
+@Entity
+@Table(name="follow")
+@IdClass(FollowId.class)
+public class Follow {
+    /**
+     * Identifier of the account doing the following.
+     */
+    @Id
+    @Column(name="followerId")
+    private Integer followerId;
+    /**
+     * Identifier of the account being followed.
+     */
+    @Id
+    @Column(name="followeeId")
+    private Integer followeeId;
+    /**
+     * Default no-argument constructor required for JPA and serialization.
+     */
+    public Follow() {
+    }
+    /**
+     * Constructor for creating a follow relationship.
+     * @param followerId the ID of the following account
+     * @param followeeId the ID of the followed account
+     */
+    public Follow(Integer followerId, Integer followeeId) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+    }
+    /**
+     * Gets the follower ID.
+     * @return followerId
+     */
+    public Integer getFollowerId() {
+        return followerId;
+    }
+    /**
+     * Sets the follower ID.
+     * @param followerId the follower ID
+     */
+    public void setFollowerId(Integer followerId) {
+        this.followerId = followerId;
+    }
+    /**
+     * Gets the followee ID.
+     * @return followeeId
+     */
+    public Integer getFolloweeId() {
+        return followeeId;
+    }
+    /**
+     * Sets the followee ID.
+     * @param followeeId the followee ID
+     */
+    public void setFolloweeId(Integer followeeId) {
+        this.followeeId = followeeId;
+    }
+    /**
+     * Returns a string representation of the follow relationship.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "Follow{" +
+                "followerId=" + followerId +
+                ", followeeId=" + followeeId +
+                '}';
+    }
+}
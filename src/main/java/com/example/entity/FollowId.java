@@ -0,0 +1,48 @@
+package com.example.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key of a {@link Follow} relationship.
+ */
+public class FollowId implements Serializable {
+    private Integer followerId;
+    private Integer followeeId;
+    /**
+     * Default no-argument constructor required for JPA.
+     */
+    public FollowId() {
+    }
+    /**
+     * Constructor for creating a key with all fields.
+     * @param followerId the ID of the following account
+     * @param followeeId the ID of the followed account
+     */
+    public FollowId(Integer followerId, Integer followeeId) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+    }
+    /**
+     * Checks equality based on both account IDs.
+     * @param obj the other object
+     * @return true if equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        FollowId other = (FollowId) obj;
+        return Objects.equals(followerId, other.followerId) && Objects.equals(followeeId, other.followeeId);
+    }
+    /**
+     * Returns a hash code based on both account IDs.
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(followerId, followeeId);
+    }
+}
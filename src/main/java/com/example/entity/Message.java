@@ -1,6 +1,8 @@
 package com.example.entity;
 
-import javax.persistence.*;
+import com.example.sharding.ShardSequence;
+
+import jakarta.persistence.*;
 
 /**
  * Entity representing a message posted by a user.
@@ -11,11 +13,13 @@ import javax.persistence.*;
 @Table(name="message")
 public class Message {
     /**
-     * Unique identifier for the message, generated by the database.
+     * Unique identifier for the message, drawn from the message_seq sequence of the
+     * shard the message is inserted into. Each sequence call reserves a block of IDs,
+     * so inserts need no key round trip and can be sent as JDBC batches.
      */
     @Column(name="messageId")
     @Id
-    @GeneratedValue
+    @ShardSequence(sequenceName = "message_seq", allocationSize = 50)
     private Integer messageId;
     /**
      * Identifier for the user who posted this message.
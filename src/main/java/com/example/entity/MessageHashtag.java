@@ -0,0 +1,78 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a hashtag used in a message, such as {@code #java} in "learning #Java".
+ * Tags are stored lower-cased and without the leading {@code #}.
+ */
+@Entity
+@Table(name="message_hashtag")
+@IdClass(MessageHashtagId.class)
+public class MessageHashtag {
+    /**
+     * Identifier of the message.
+     */
+    @Id
+    @Column(name="messageId")
+    private Integer messageId;
+    /**
+     * The hashtag, lower-cased and without the leading {@code #}.
+     */
+    @Id
+    @Column(name="tag")
+    private String tag;
+    /**
+     * Default no-argument constructor required for JPA and serialization.
+     */
+    public MessageHashtag() {
+    }
+    /**
+     * Constructor for creating a message hashtag with all fields.
+     * @param messageId the ID of the message
+     * @param tag the hashtag
+     */
+    public MessageHashtag(Integer messageId, String tag) {
+        this.messageId = messageId;
+        this.tag = tag;
+    }
+    /**
+     * Gets the message ID.
+     * @return messageId
+     */
+    public Integer getMessageId() {
+        return messageId;
+    }
+    /**
+     * Sets the message ID.
+     * @param messageId the message ID
+     */
+    public void setMessageId(Integer messageId) {
+        this.messageId = messageId;
+    }
+    /**
+     * Gets the hashtag.
+     * @return tag
+     */
+    public String getTag() {
+        return tag;
+    }
+    /**
+     * Sets the hashtag.
+     * @param tag the hashtag
+     */
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+    /**
+     * Returns a string representation of the message hashtag.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "MessageHashtag{" +
+                "messageId=" + messageId +
+                ", tag='" + tag + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key of a {@link MessageHashtag}.
+ */
+public class MessageHashtagId implements Serializable {
+    private Integer messageId;
+    private String tag;
+    /**
+     * Default no-argument constructor required for JPA.
+     */
+    public MessageHashtagId() {
+    }
+    /**
+     * Constructor for creating a key with all fields.
+     * @param messageId the ID of the message
+     * @param tag the hashtag
+     */
+    public MessageHashtagId(Integer messageId, String tag) {
+        this.messageId = messageId;
+        this.tag = tag;
+    }
+    /**
+     * Checks equality based on the message ID and the hashtag.
+     * @param obj the other object
+     * @return true if equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        MessageHashtagId other = (MessageHashtagId) obj;
+        return Objects.equals(messageId, other.messageId) && Objects.equals(tag, other.tag);
+    }
+    /**
+     * Generates a hash code based on the message ID and the hashtag.
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, tag);
+    }
+}
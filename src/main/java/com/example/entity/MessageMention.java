@@ -0,0 +1,78 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a username mentioned in a message, such as {@code alice} in "thanks @alice".
+ * The username is stored as written, without the leading {@code @}; it need not belong to an account.
+ */
+@Entity
+@Table(name="message_mention")
+@IdClass(MessageMentionId.class)
+public class MessageMention {
+    /**
+     * Identifier of the message.
+     */
+    @Id
+    @Column(name="messageId")
+    private Integer messageId;
+    /**
+     * The mentioned username, without the leading {@code @}.
+     */
+    @Id
+    @Column(name="username")
+    private String username;
+    /**
+     * Default no-argument constructor required for JPA and serialization.
+     */
+    public MessageMention() {
+    }
+    /**
+     * Constructor for creating a message mention with all fields.
+     * @param messageId the ID of the message
+     * @param username the mentioned username
+     */
+    public MessageMention(Integer messageId, String username) {
+        this.messageId = messageId;
+        this.username = username;
+    }
+    /**
+     * Gets the message ID.
+     * @return messageId
+     */
+    public Integer getMessageId() {
+        return messageId;
+    }
+    /**
+     * Sets the message ID.
+     * @param messageId the message ID
+     */
+    public void setMessageId(Integer messageId) {
+        this.messageId = messageId;
+    }
+    /**
+     * Gets the mentioned username.
+     * @return username
+     */
+    public String getUsername() {
+        return username;
+    }
+    /**
+     * Sets the mentioned username.
+     * @param username the mentioned username
+     */
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    /**
+     * Returns a string representation of the message mention.
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "MessageMention{" +
+                "messageId=" + messageId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
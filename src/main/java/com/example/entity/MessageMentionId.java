@@ -0,0 +1,48 @@
+package com.example.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key of a {@link MessageMention}.
+ */
+public class MessageMentionId implements Serializable {
+    private Integer messageId;
+    private String username;
+    /**
+     * Default no-argument constructor required for JPA.
+     */
+    public MessageMentionId() {
+    }
+    /**
+     * Constructor for creating a key with all fields.
+     * @param messageId the ID of the message
+     * @param username the mentioned username
+     */
+    public MessageMentionId(Integer messageId, String username) {
+        this.messageId = messageId;
+        this.username = username;
+    }
+    /**
+     * Checks equality based on the message ID and the mentioned username.
+     * @param obj the other object
+     * @return true if equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        MessageMentionId other = (MessageMentionId) obj;
+        return Objects.equals(messageId, other.messageId) && Objects.equals(username, other.username);
+    }
+    /**
+     * Generates a hash code based on the message ID and the mentioned username.
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, username);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Application metrics on top of the Spring Boot Actuator defaults (HTTP server requests,
+ * Spring Data repository invocations, caches and the connection pool).
+ * Adds a timer for every service method annotated with {@code @Timed("app.service")}, and
+ * per-request counts of SQL statements and rows read that are checked against the query budget
+ * ({@link QueryBudgetProperties}). Setting {@code app.metrics.enabled=false} removes all of
+ * these, leaving only the Actuator meters.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+@ConditionalOnProperty(name = "app.metrics.enabled", matchIfMissing = true)
+public class MetricsConfig {
+
+    /**
+     * Name of the summary of SQL statements executed per HTTP request.
+     */
+    public static final String QUERY_SUMMARY = "app.db.queries";
+    /**
+     * Name of the summary of result set rows read per HTTP request.
+     */
+    public static final String ROWS_SUMMARY = "app.db.rows";
+
+    /**
+     * Times methods annotated with {@code @Timed}, tagged with their class and method name.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Routes all JDBC access through the statement and row counter.
+     */
+    @Bean
+    public static QueryCountingDataSourcePostProcessor queryCountingDataSourcePostProcessor() {
+        return new QueryCountingDataSourcePostProcessor();
+    }
+
+    /**
+     * Records the statement and row counts of each request handled by Spring MVC.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer queryMetricsConfigurer(MeterRegistry registry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new QueryMetricsInterceptor(registry));
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.metrics;
+
+import com.example.controller.SocialMediaController;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks each controller response against its query budget just before the body is written.
+ * Requests over budget are logged and counted in {@code app.db.budget.exceeded}; in
+ * {@link QueryBudgetProperties.Mode#FAIL FAIL} mode the response becomes an HTTP 500.
+ * With {@code app.query-budget.expose-headers=true} every response carries its counts in the
+ * {@value #QUERY_COUNT_HEADER} and {@value #ROWS_READ_HEADER} headers.
+ * Streamed responses are written after the handler returns and are not checked.
+ */
+@ControllerAdvice(assignableTypes = SocialMediaController.class)
+@ConditionalOnProperty(name = "app.metrics.enabled", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String ROWS_READ_HEADER = "X-Rows-Read";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetAdvice.class);
+
+    private final QueryBudgetProperties budget;
+    private final MeterRegistry registry;
+
+    public QueryBudgetAdvice(QueryBudgetProperties budget, MeterRegistry registry) {
+        this.budget = budget;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryCounter.current();
+        if (stats == null || returnType.getMethod() == null) {
+            return body;
+        }
+        if (budget.isExposeHeaders()) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, Integer.toString(stats.getStatements()));
+            response.getHeaders().set(ROWS_READ_HEADER, Long.toString(stats.getRows()));
+        }
+        String handler = returnType.getMethod().getName();
+        String violation = budget.limitsFor(handler).check(stats);
+        if (violation == null) {
+            return body;
+        }
+        String uri = uri(request);
+        log.warn("Query budget exceeded by {} {} ({}): {}", request.getMethod(), uri, handler, violation);
+        registry.counter("app.db.budget.exceeded", "method", String.valueOf(request.getMethod()), "uri", uri).increment();
+        if (budget.getMode() == QueryBudgetProperties.Mode.FAIL) {
+            response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return "Query budget exceeded: " + violation;
+        }
+        return body;
+    }
+
+    private static String uri(ServerHttpRequest request) {
+        if (request instanceof ServletServerHttpRequest) {
+            Object pattern = ((ServletServerHttpRequest) request).getServletRequest()
+                    .getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                return pattern.toString();
+            }
+        }
+        return "UNKNOWN";
+    }
+}
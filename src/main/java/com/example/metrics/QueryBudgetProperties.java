@@ -0,0 +1,154 @@
+package com.example.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request limits on SQL statements and rows read ({@code app.query-budget.*}).
+ * The defaults apply to every controller handler; {@code endpoints.<handlerMethod>.*}
+ * overrides them for one handler, keyed by its method name in the controller.
+ * A negative limit means unlimited.
+ */
+@ConfigurationProperties("app.query-budget")
+public class QueryBudgetProperties {
+
+    /**
+     * What to do when a request exceeds its budget.
+     */
+    public enum Mode {
+        /**
+         * Log a warning and count the violation.
+         */
+        LOG,
+        /**
+         * Also replace the response with HTTP 500, so tests catch the regression.
+         */
+        FAIL
+    }
+
+    private Mode mode = Mode.LOG;
+    private boolean exposeHeaders = false;
+    private Limits defaults = new Limits(10, 500L, 5);
+    private Map<String, Limits> endpoints = new HashMap<>();
+
+    /**
+     * Limits for one handler method, falling back to the defaults for any limit it does not set.
+     * @param handler the controller method name
+     * @return the effective limits
+     */
+    public Limits limitsFor(String handler) {
+        Limits override = endpoints.get(handler);
+        if (override == null) {
+            return defaults;
+        }
+        return new Limits(
+                override.maxStatements != null ? override.maxStatements : defaults.maxStatements,
+                override.maxRows != null ? override.maxRows : defaults.maxRows,
+                override.maxRepeatedStatements != null ? override.maxRepeatedStatements : defaults.maxRepeatedStatements);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isExposeHeaders() {
+        return exposeHeaders;
+    }
+
+    public void setExposeHeaders(boolean exposeHeaders) {
+        this.exposeHeaders = exposeHeaders;
+    }
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limits> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Limits> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Statement, row and repetition limits for a request.
+     */
+    public static class Limits {
+        /**
+         * Most statements a request may execute.
+         */
+        private Integer maxStatements;
+        /**
+         * Most result set rows a request may read.
+         */
+        private Long maxRows;
+        /**
+         * Most times a request may execute the same SQL, which catches N+1 query patterns.
+         */
+        private Integer maxRepeatedStatements;
+
+        public Limits() {
+        }
+
+        public Limits(Integer maxStatements, Long maxRows, Integer maxRepeatedStatements) {
+            this.maxStatements = maxStatements;
+            this.maxRows = maxRows;
+            this.maxRepeatedStatements = maxRepeatedStatements;
+        }
+
+        /**
+         * Describes the first limit the request exceeded.
+         * @param stats the request's counts
+         * @return a description of the violation, or null if the request is within its limits
+         */
+        public String check(QueryStats stats) {
+            if (maxStatements != null && maxStatements >= 0 && stats.getStatements() > maxStatements) {
+                return stats.getStatements() + " statements, limit " + maxStatements;
+            }
+            if (maxRows != null && maxRows >= 0 && stats.getRows() > maxRows) {
+                return stats.getRows() + " rows read, limit " + maxRows;
+            }
+            if (maxRepeatedStatements != null && maxRepeatedStatements >= 0
+                    && stats.getMostRepeatedCount() > maxRepeatedStatements) {
+                return "possible N+1: executed " + stats.getMostRepeatedCount() + " times, limit "
+                        + maxRepeatedStatements + ": " + stats.getMostRepeatedStatement();
+            }
+            return null;
+        }
+
+        public Integer getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(Integer maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public Long getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(Long maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Integer getMaxRepeatedStatements() {
+            return maxRepeatedStatements;
+        }
+
+        public void setMaxRepeatedStatements(Integer maxRepeatedStatements) {
+            this.maxRepeatedStatements = maxRepeatedStatements;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Datasource-proxy listener that counts the SQL statements executed and the result set rows
+ * read on the current thread. Counting only happens between {@link #start()} and {@link #stop()},
+ * which the web layer calls around each request; JDBC work outside a request is not counted.
+ */
+public class QueryCounter implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final ThreadLocal<QueryStats> STATS = new ThreadLocal<>();
+
+    /**
+     * Starts counting on the current thread, discarding any previous counts.
+     */
+    public static void start() {
+        STATS.set(new QueryStats());
+    }
+
+    /**
+     * Continues counting on the current thread into counts taken from another thread with {@link #stop()}.
+     *
+     * @param stats the counts to continue
+     */
+    public static void resume(QueryStats stats) {
+        STATS.set(stats);
+    }
+
+    /**
+     * @return the counts so far on the current thread, or null if counting was not started
+     */
+    public static QueryStats current() {
+        return STATS.get();
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return the counts since {@link #start()}, or null if counting was not started
+     */
+    public static QueryStats stop() {
+        QueryStats stats = STATS.get();
+        STATS.remove();
+        return stats;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    /**
+     * Counts an executed statement.
+     */
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        QueryStats stats = STATS.get();
+        if (stats != null && !queries.isEmpty()) {
+            stats.statement(queries.get(0).getQuery());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+    }
+
+    /**
+     * Counts a row when {@code ResultSet.next()} moved to one.
+     */
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        QueryStats stats = STATS.get();
+        if (stats != null && context.getTarget() instanceof ResultSet
+                && "next".equals(context.getMethod().getName()) && Boolean.TRUE.equals(context.getResult())) {
+            stats.row();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every {@link DataSource} bean in a datasource-proxy that reports statements and
+ * result set rows to a {@link QueryCounter}. JPA, Spring Data and plain JDBC access are all counted.
+ */
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final QueryCounter counter = new QueryCounter();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                    .listener(counter)
+                    .methodListener(counter)
+                    .proxyResultSet()
+                    .build();
+        }
+        return bean;
+    }
+}
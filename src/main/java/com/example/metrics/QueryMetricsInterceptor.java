@@ -0,0 +1,69 @@
+package com.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements and result set rows of each request and records them as
+ * distribution summaries tagged with the HTTP method and the matched URI pattern (the same
+ * tags as {@code http.server.requests}).
+ * When a handler continues asynchronously, such as login or a streaming export, the counts so far
+ * are carried over to the dispatch that writes the result. Statements run on other threads in the
+ * meantime are not counted.
+ */
+public class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    private static final String STATS_ATTRIBUTE = QueryMetricsInterceptor.class.getName() + ".stats";
+
+    public QueryMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object stats = request.getAttribute(STATS_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && stats instanceof QueryStats) {
+            request.removeAttribute(STATS_ATTRIBUTE);
+            QueryCounter.resume((QueryStats) stats);
+        } else {
+            QueryCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STATS_ATTRIBUTE, QueryCounter.stop());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryStats stats = QueryCounter.stop();
+        if (stats == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder(MetricsConfig.QUERY_SUMMARY)
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder(MetricsConfig.ROWS_SUMMARY)
+                .description("Result set rows read per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getRows());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL statements executed and rows read during one HTTP request. The counts may be updated from
+ * several threads at once, such as the threads querying shards in parallel for the request.
+ */
+public class QueryStats {
+
+    private int statements;
+    private long rows;
+    private final Map<String, Integer> executions = new HashMap<>();
+    private String mostRepeatedStatement;
+    private int mostRepeatedCount;
+
+    /**
+     * Counts one execution of a statement (a JDBC batch counts once).
+     * @param sql the SQL that was executed
+     */
+    synchronized void statement(String sql) {
+        statements++;
+        int count = executions.merge(sql, 1, Integer::sum);
+        if (count > mostRepeatedCount) {
+            mostRepeatedCount = count;
+            mostRepeatedStatement = sql;
+        }
+    }
+
+    /**
+     * Counts one row read from a result set.
+     */
+    synchronized void row() {
+        rows++;
+    }
+
+    /**
+     * @return the number of statements executed
+     */
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the number of result set rows read
+     */
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the SQL executed most often, or null if nothing was executed
+     */
+    public synchronized String getMostRepeatedStatement() {
+        return mostRepeatedStatement;
+    }
+
+    /**
+     * @return how many times the most repeated SQL was executed
+     */
+    public synchronized int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.replication;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The data source of read-only transactions: the replica, unless the current request has to see
+ * a write the replica has not applied yet. A request states the LSN it has to see with
+ * {@link #require(long)}, usually from the token the client got back with its last write; while the
+ * replica is behind that LSN, its reads go to the primary instead.
+ */
+public class ReadYourWritesDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    private final SimulatedReplication replication;
+
+    public ReadYourWritesDataSource(SimulatedReplication replication) {
+        this.replication = replication;
+    }
+
+    /**
+     * Makes the current thread's reads see every transaction up to the given LSN.
+     */
+    public static void require(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+
+    /**
+     * Lets the current thread's reads go to the replica however far behind it is.
+     */
+    public static void clear() {
+        REQUIRED_LSN.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long required = REQUIRED_LSN.get();
+        if (required != null && required > replication.getAppliedLsn()) {
+            return replication.getPrimary().getConnection();
+        }
+        return replication.getReplica().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Connections use the configured credentials");
+    }
+}
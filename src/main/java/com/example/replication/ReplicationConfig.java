@@ -0,0 +1,69 @@
+package com.example.replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write splitting for the "replication" profile. The application's data source sends
+ * read-write transactions to a primary database and read-only ones
+ * ({@code @Transactional(readOnly = true)}) to a replica that {@link SimulatedReplication} keeps
+ * {@code app.replication.lag} behind. The connection is chosen when a transaction runs its first
+ * statement, once its read-only flag is known. Clients that send back the LSN of their last write
+ * read from the primary until the replica has caught up with it.
+ * <p>
+ * The two connection pools are not beans, so only the routing data source is counted by the
+ * query metrics.
+ */
+@Configuration
+@Profile("replication")
+public class ReplicationConfig {
+
+    @Bean
+    public SimulatedReplication simulatedReplication(@Value("${app.replication.primary-url}") String primaryUrl,
+                                                     @Value("${app.replication.replica-url}") String replicaUrl,
+                                                     @Value("${app.replication.lag:1s}") Duration lag,
+                                                     @Value("${app.replication.pool-size:10}") int poolSize) {
+        return new SimulatedReplication(pool("primary", primaryUrl, poolSize),
+                pool("replica", replicaUrl, poolSize), lag);
+    }
+
+    @Bean
+    public DataSource dataSource(SimulatedReplication replication) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replication.getPrimary());
+        dataSource.setReadOnlyDataSource(new ReadYourWritesDataSource(replication));
+        return dataSource;
+    }
+
+    /**
+     * Reads the LSN token of each request handled by Spring MVC.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer replicationLsnConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new ReplicationLsnInterceptor());
+            }
+        };
+    }
+
+    private static HikariDataSource pool(String name, String url, int size) {
+        HikariDataSource pool = DataSourceBuilder.create().type(HikariDataSource.class).url(url).username("sa").build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(size);
+        return pool;
+    }
+}
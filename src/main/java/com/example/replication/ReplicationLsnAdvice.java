@@ -0,0 +1,50 @@
+package com.example.replication;
+
+import com.example.controller.SocialMediaController;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Gives every response to a request other than GET the LSN of the last transaction committed on the
+ * primary in the {@value #LSN_HEADER} header. The request's own writes have committed by the time
+ * its body is written, so the LSN covers them; a client that sends it back on later requests reads
+ * its own writes. The LSN may be newer than the client's writes, which only sends a few more reads
+ * to the primary.
+ */
+@ControllerAdvice(assignableTypes = SocialMediaController.class)
+@Profile("replication")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReplicationLsnAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String LSN_HEADER = "X-Replication-LSN";
+
+    private final SimulatedReplication replication;
+
+    public ReplicationLsnAdvice(SimulatedReplication replication) {
+        this.replication = replication;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            response.getHeaders().set(LSN_HEADER, Long.toString(replication.getLastLsn()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.replication;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Reads the {@value ReplicationLsnAdvice#LSN_HEADER} request header, the LSN a client got back with
+ * its last write, so that the request's reads see that write. A missing or malformed header lets
+ * reads go to the replica.
+ */
+public class ReplicationLsnInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String lsn = request.getHeader(ReplicationLsnAdvice.LSN_HEADER);
+        ReadYourWritesDataSource.clear();
+        if (lsn != null) {
+            try {
+                ReadYourWritesDataSource.require(Long.parseLong(lsn.trim()));
+            } catch (NumberFormatException e) {
+                // treated as no token
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWritesDataSource.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWritesDataSource.clear();
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.replication;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous statement-based replication from a primary database to a replica, standing in for
+ * the log shipping of a real database so that replica lag can be reproduced with two in-memory
+ * H2 databases.
+ * <p>
+ * Every statement that changes the primary (DML and DDL, not queries) is captured from its
+ * connection through datasource-proxy. When the connection commits, its statements become one log
+ * entry with the next log sequence number (LSN); statements of rolled-back or abandoned
+ * transactions are dropped. A replicator thread replays each entry on the replica in one
+ * transaction once it is {@code lag} old, in LSN order, so the replica always shows a committed
+ * state of the primary and {@link #getAppliedLsn()} says which one.
+ */
+public class SimulatedReplication implements QueryExecutionListener, MethodExecutionListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedReplication.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long lagNanos;
+
+    // statements run since the last commit, by connection
+    private final Map<String, List<Change>> uncommitted = new ConcurrentHashMap<>();
+    private final DelayQueue<Entry> shipped = new DelayQueue<>();
+    private volatile long lastLsn;
+    private volatile long appliedLsn;
+    private final Thread replicator;
+
+    /**
+     * Starts replicating.
+     *
+     * @param primary the primary database, written through {@link #getPrimary()} only
+     * @param replica the replica database, written by the replicator only
+     * @param lag how long a committed transaction takes to reach the replica
+     */
+    public SimulatedReplication(DataSource primary, DataSource replica, Duration lag) {
+        this.primary = ProxyDataSourceBuilder.create("primary", primary)
+                .listener(this)
+                .methodListener(this)
+                .build();
+        this.replica = replica;
+        this.lagNanos = lag.toNanos();
+        replicator = new Thread(this::replicate, "replicator");
+        replicator.setDaemon(true);
+        replicator.start();
+    }
+
+    /**
+     * @return the primary database; changes made through it are replicated
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return the replica database
+     */
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * @return the LSN of the last transaction committed on the primary, 0 if none
+     */
+    public long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * @return the LSN of the last transaction applied on the replica, 0 if none
+     */
+    public long getAppliedLsn() {
+        return appliedLsn;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (!execution.isSuccess() || !changesData(execution)) {
+            return;
+        }
+        List<Change> changes = uncommitted.computeIfAbsent(execution.getConnectionId(), id -> new ArrayList<>());
+        boolean prepared = execution.getStatementType() != StatementType.STATEMENT;
+        for (QueryInfo query : queries) {
+            if (query.getParametersList().isEmpty()) {
+                changes.add(new Change(query.getQuery(), prepared, List.of()));
+            }
+            for (List<ParameterSetOperation> parameters : query.getParametersList()) {
+                changes.add(new Change(query.getQuery(), prepared, new ArrayList<>(parameters)));
+            }
+        }
+        if (isAutoCommit(execution.getStatement())) {
+            commit(execution.getConnectionId());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        if (!(context.getTarget() instanceof Connection) || context.getThrown() != null) {
+            return;
+        }
+        String connectionId = context.getConnectionInfo().getConnectionId();
+        Object[] args = context.getMethodArgs();
+        switch (context.getMethod().getName()) {
+            case "commit" -> commit(connectionId);
+            // switching auto-commit on commits the open transaction
+            case "setAutoCommit" -> {
+                if (Boolean.TRUE.equals(args[0])) {
+                    commit(connectionId);
+                }
+            }
+            case "rollback" -> {
+                if (args == null || args.length == 0) {
+                    uncommitted.remove(connectionId);
+                }
+            }
+            case "close" -> uncommitted.remove(connectionId);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Stops the replicator; entries not yet applied are dropped. Closes both databases.
+     */
+    @Override
+    public void close() throws IOException {
+        replicator.interrupt();
+        try {
+            replicator.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (primary instanceof Closeable) {
+            ((Closeable) primary).close();
+        }
+        if (replica instanceof Closeable) {
+            ((Closeable) replica).close();
+        }
+    }
+
+    /**
+     * Queries, including {@code execute} calls that returned a result set, change nothing.
+     */
+    private static boolean changesData(ExecutionInfo execution) {
+        String method = execution.getMethod().getName();
+        return !method.equals("executeQuery") && !(method.equals("execute") && Boolean.TRUE.equals(execution.getResult()));
+    }
+
+    private static boolean isAutoCommit(Statement statement) {
+        try {
+            return statement.getConnection().getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ships the statements of a committed transaction as the next log entry.
+     */
+    private void commit(String connectionId) {
+        List<Change> changes = uncommitted.remove(connectionId);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            long lsn = lastLsn + 1;
+            shipped.add(new Entry(lsn, changes, System.nanoTime() + lagNanos));
+            lastLsn = lsn;
+        }
+    }
+
+    /**
+     * Applies log entries as they come due until interrupted.
+     */
+    private void replicate() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = shipped.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try (Connection connection = replica.getConnection()) {
+                connection.setAutoCommit(false);
+                for (Change change : entry.changes) {
+                    change.applyTo(connection);
+                }
+                connection.commit();
+            } catch (SQLException | ReflectiveOperationException e) {
+                // a real replica would stop here; carry on so readers are not pinned to the primary
+                log.error("Replica could not apply LSN {}", entry.lsn, e);
+            }
+            appliedLsn = entry.lsn;
+        }
+    }
+
+    /**
+     * One executed statement and its parameters.
+     */
+    private record Change(String sql, boolean prepared, List<ParameterSetOperation> parameters) {
+
+        void applyTo(Connection connection) throws SQLException, ReflectiveOperationException {
+            if (!prepared) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(sql);
+                }
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                statement.execute();
+            }
+        }
+    }
+
+    /**
+     * A committed transaction, due on the replica at {@code dueAt} ({@link System#nanoTime()}).
+     */
+    private record Entry(long lsn, List<Change> changes, long dueAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(lsn, ((Entry) other).lsn);
+        }
+    }
+}
@@ -2,8 +2,17 @@ package com.example.repository;
 
 import com.example.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for Account entity.
  * Provides methods for CRUD operations and custom queries related to accounts.
@@ -11,4 +20,34 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Integer> {
     Account findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Streams every username without loading the accounts themselves.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a.username from Account a")
+    Stream<String> streamAllUsernames();
+
+    /**
+     * Streams every account ID without loading the accounts themselves.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a.accountId from Account a")
+    Stream<Integer> streamAllIds();
+
+    /**
+     * Returns which of the given account IDs exist, in a single query.
+     */
+    @Query("select a.accountId from Account a where a.accountId in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Replaces the stored password of an account in a single update statement.
+     * Must be called inside a transaction.
+     */
+    @Modifying
+    @Query("update Account a set a.password = :password where a.accountId = :accountId")
+    int updatePassword(@Param("accountId") Integer accountId, @Param("password") String password);
+}
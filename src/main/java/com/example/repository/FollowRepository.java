@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import com.example.entity.Follow;
+import com.example.entity.FollowId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for Follow entity.
+ * Provides methods for CRUD operations and custom queries related to follow relationships.
+ */
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, FollowId> {
+
+    long countByFolloweeId(Integer followeeId);
+
+    @Query("select f.followerId from Follow f where f.followeeId = :followeeId")
+    List<Integer> findFollowerIds(@Param("followeeId") Integer followeeId);
+
+    @Query("select f.followeeId from Follow f where f.followerId = :followerId")
+    List<Integer> findFolloweeIds(@Param("followerId") Integer followerId);
+
+    /**
+     * Returns the followees among the given accounts that have more than {@code threshold} followers.
+     */
+    @Query("select f.followeeId from Follow f where f.followeeId in :followeeIds"
+            + " group by f.followeeId having count(f) > :threshold")
+    List<Integer> findFolloweesWithMoreFollowersThan(@Param("followeeIds") Collection<Integer> followeeIds,
+                                                     @Param("threshold") long threshold);
+}
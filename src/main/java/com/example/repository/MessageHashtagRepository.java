@@ -0,0 +1,30 @@
+package com.example.repository;
+
+import com.example.entity.MessageHashtag;
+import com.example.entity.MessageHashtagId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for the hashtags of messages.
+ * Rows are inserted with the message and removed by the database when the message is deleted.
+ */
+@Repository
+public interface MessageHashtagRepository extends JpaRepository<MessageHashtag, MessageHashtagId> {
+
+    @Query("select h.tag from MessageHashtag h where h.messageId = :messageId")
+    List<String> findTagsByMessageId(@Param("messageId") Integer messageId);
+
+    /**
+     * Removes every hashtag of a message in a single delete statement.
+     * Must be called inside a transaction.
+     */
+    @Modifying
+    @Query("delete from MessageHashtag h where h.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Integer messageId);
+}
@@ -0,0 +1,30 @@
+package com.example.repository;
+
+import com.example.entity.MessageMention;
+import com.example.entity.MessageMentionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for the usernames mentioned in messages.
+ * Rows are inserted with the message and removed by the database when the message is deleted.
+ */
+@Repository
+public interface MessageMentionRepository extends JpaRepository<MessageMention, MessageMentionId> {
+
+    @Query("select m.username from MessageMention m where m.messageId = :messageId")
+    List<String> findUsernamesByMessageId(@Param("messageId") Integer messageId);
+
+    /**
+     * Removes every mention of a message in a single delete statement.
+     * Must be called inside a transaction.
+     */
+    @Modifying
+    @Query("delete from MessageMention m where m.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Integer messageId);
+}
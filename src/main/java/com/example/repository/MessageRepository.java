@@ -1,8 +1,16 @@
 package com.example.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import com.example.entity.Message;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Message entity.
@@ -10,5 +18,78 @@ import java.util.List;
  */
 public interface MessageRepository extends JpaRepository<Message, Integer> {
 
+    /**
+     * Number of rows the JDBC driver fetches per round trip while streaming.
+     */
+    int STREAM_FETCH_SIZE = 1000;
+
     List<Message> findByPostedBy(Integer postedBy);
+
+    /**
+     * Keyset page over all messages: seeks past {@code messageId} on the primary key
+     * and reads at most {@code pageable.getPageSize()} rows, without a count query.
+     */
+    List<Message> findByMessageIdGreaterThanOrderByMessageIdAsc(Integer messageId, Pageable pageable);
+
+    /**
+     * Keyset page over one user's messages, served by the (postedBy, messageId) index.
+     */
+    List<Message> findByPostedByAndMessageIdGreaterThanOrderByMessageIdAsc(Integer postedBy, Integer messageId, Pageable pageable);
+
+    /**
+     * Newest-first page of the messages posted by any of the given users, ordered by
+     * (timePostedEpoch, messageId) descending with a missing posting time counted as 0, below the
+     * message posted at {@code until} with ID {@code before}. Used to build and extend feeds.
+     */
+    @Query("select m from Message m where m.postedBy in :postedBy"
+            + " and (coalesce(m.timePostedEpoch, 0) < :until"
+            + " or coalesce(m.timePostedEpoch, 0) = :until and m.messageId < :before)"
+            + " order by coalesce(m.timePostedEpoch, 0) desc, m.messageId desc")
+    List<Message> findByPostedByInPostedBefore(@Param("postedBy") Collection<Integer> postedBy, @Param("until") long until,
+                                               @Param("before") int before, Pageable pageable);
+
+    /**
+     * Newest-first page of the messages posted at or after {@code since} and before {@code until},
+     * plus those posted exactly at {@code until} with a message ID below {@code before}, ordered by
+     * (timePostedEpoch, messageId) descending. The bounds are a range on the
+     * (timePostedEpoch, messageId) index, which is read in order and only as far as the page.
+     */
+    @Query("select m from Message m where m.timePostedEpoch >= :since and m.timePostedEpoch <= :until"
+            + " and (m.timePostedEpoch < :until or m.messageId < :before)"
+            + " order by m.timePostedEpoch desc, m.messageId desc")
+    List<Message> findPostedBetween(@Param("since") long since, @Param("until") long until,
+                                    @Param("before") int before, Pageable pageable);
+
+    /**
+     * Time-range page of one user's messages, like {@link #findPostedBetween}, served by the
+     * (postedBy, timePostedEpoch, messageId) index. The constant postedBy leads the sort so the
+     * database can take the order from the index.
+     */
+    @Query("select m from Message m where m.postedBy = :postedBy"
+            + " and m.timePostedEpoch >= :since and m.timePostedEpoch <= :until"
+            + " and (m.timePostedEpoch < :until or m.messageId < :before)"
+            + " order by m.postedBy, m.timePostedEpoch desc, m.messageId desc")
+    List<Message> findByPostedByPostedBetween(@Param("postedBy") Integer postedBy, @Param("since") long since,
+                                              @Param("until") long until, @Param("before") int before,
+                                              Pageable pageable);
+
+    /**
+     * Deletes a message, and through the foreign keys its hashtags and mentions, in a single
+     * delete statement. Must be called inside a transaction.
+     */
+    @Modifying
+    @Query("delete from Message m where m.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Integer messageId);
+
+    /**
+     * Streams every message in message ID order over a forward-only cursor.
+     * Entities are loaded read-only; callers must consume the stream inside a
+     * transaction and close it, and should detach rows they are done with.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from Message m order by m.messageId")
+    Stream<Message> streamAll();
 }
\ No newline at end of file
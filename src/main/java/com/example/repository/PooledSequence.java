@@ -0,0 +1,52 @@
+package com.example.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out IDs from a database sequence in blocks, the way the JPA entities' generators do: each sequence value is the first ID of a block of {@code blockSize} IDs.
+ * Because both sides reserve whole blocks from the same sequence, IDs assigned through R2DBC never
+ * collide with IDs assigned through JPA.
+ */
+class PooledSequence {
+
+    private final DatabaseClient databaseClient;
+    private final String sql;
+    private final int blockSize;
+    private int next;
+    private int limit;
+
+    PooledSequence(DatabaseClient databaseClient, String sequenceName, int blockSize) {
+        this.databaseClient = databaseClient;
+        this.sql = "select next value for " + sequenceName;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next ID, reserving a new block from the database only when the current one is used up.
+     * If two callers reserve a block at the same time, the later block replaces the earlier one and the
+     * rest of the earlier block goes unused.
+     */
+    Mono<Integer> nextId() {
+        return Mono.defer(() -> {
+            Integer id = takeFromBlock();
+            if (id != null) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql(sql)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(first -> startBlock(first.intValue()));
+        });
+    }
+
+    private synchronized Integer takeFromBlock() {
+        return next < limit ? next++ : null;
+    }
+
+    private synchronized int startBlock(int first) {
+        next = first + 1;
+        limit = first + blockSize;
+        return first;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.repository;
+
+import com.example.entity.Account;
+
+import io.r2dbc.spi.Readable;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the account table over R2DBC, used by the reactive API.
+ * Mirrors the queries of {@link AccountRepository} with explicit SQL against the same schema.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveAccountRepository {
+
+    private final DatabaseClient databaseClient;
+    private final PooledSequence ids;
+
+    public ReactiveAccountRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.ids = new PooledSequence(databaseClient, "account_seq", 50);
+    }
+
+    /**
+     * Equivalent to {@link AccountRepository#findByUsername}, served by the unique index on username.
+     */
+    public Mono<Account> findByUsername(String username) {
+        return databaseClient.sql("select accountId, username, password from account where username = :username")
+                .bind("username", username)
+                .map(ReactiveAccountRepository::toAccount)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(int accountId) {
+        return databaseClient.sql("select 1 from account where accountId = :id")
+                .bind("id", accountId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Inserts the account with a newly allocated ID. Fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} if the username is taken.
+     * @return the account with its ID set
+     */
+    public Mono<Account> insert(Account account) {
+        return ids.nextId().flatMap(id -> databaseClient
+                .sql("insert into account (accountId, username, password) values (:id, :username, :password)")
+                .bind("id", id)
+                .bind("username", account.getUsername())
+                .bind("password", account.getPassword())
+                .then()
+                .thenReturn(new Account(id, account.getUsername(), account.getPassword())));
+    }
+
+    /**
+     * Equivalent to {@link AccountRepository#updatePassword}.
+     * @return the number of updated rows
+     */
+    public Mono<Long> updatePassword(int accountId, String password) {
+        return databaseClient.sql("update account set password = :password where accountId = :id")
+                .bind("password", password)
+                .bind("id", accountId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Account toAccount(Readable row) {
+        return new Account(
+                row.get("accountId", Integer.class),
+                row.get("username", String.class),
+                row.get("password", String.class));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Database access for the "reactive" profile. The reactive repositories use a {@link DatabaseClient}
+ * on the connection factory that Spring Boot configures from {@code spring.r2dbc.*}. Spring Boot
+ * backs off from creating a JDBC data source once an R2DBC connection factory exists, so the data
+ * source for the JPA services that the reactive API still reuses is declared here.
+ * <p>
+ * The repositories read and write the single database of {@code spring.r2dbc.url}, so the profile
+ * cannot be combined with the "sharding" or "replication" profile; startup fails if it is.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDatabaseConfig {
+
+    public ReactiveDatabaseConfig(Environment environment) {
+        if (environment.matchesProfiles("sharding | replication")) {
+            throw new IllegalStateException("The reactive profile cannot be combined with the sharding or replication "
+                    + "profile: R2DBC reads and writes a single database");
+        }
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    @Profile("!sharding & !replication") // those profiles declare their own; the constructor rejects them
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(@Value("${spring.datasource.url}") String url) {
+        return DataSourceBuilder.create().type(HikariDataSource.class).url(url).username("sa").build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.repository;
+
+import com.example.entity.Message;
+
+import io.r2dbc.spi.Readable;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the message table over R2DBC, used by the reactive API.
+ * Mirrors the queries of {@link MessageRepository} with explicit SQL against the same schema.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveMessageRepository {
+
+    private static final String COLUMNS = "messageId, postedBy, messageText, timePostedEpoch";
+    private static final String TIME_RANGE = "timePostedEpoch >= :since and timePostedEpoch <= :until"
+            + " and (timePostedEpoch < :until or messageId < :before)";
+
+    private final DatabaseClient databaseClient;
+    private final PooledSequence ids;
+
+    public ReactiveMessageRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.ids = new PooledSequence(databaseClient, "message_seq", 50);
+    }
+
+    /**
+     * Streams every message in message ID order as rows arrive from the database.
+     */
+    public Flux<Message> findAll() {
+        return databaseClient.sql("select " + COLUMNS + " from message order by messageId")
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    /**
+     * Keyset page over all messages, equivalent to {@link MessageRepository#findByMessageIdGreaterThanOrderByMessageIdAsc}.
+     */
+    public Flux<Message> findByMessageIdGreaterThan(int messageId, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from message where messageId > :after order by messageId limit :limit")
+                .bind("after", messageId)
+                .bind("limit", limit)
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    public Mono<Message> findById(int messageId) {
+        return databaseClient.sql("select " + COLUMNS + " from message where messageId = :id")
+                .bind("id", messageId)
+                .map(ReactiveMessageRepository::toMessage)
+                .one();
+    }
+
+    /**
+     * Equivalent to {@link MessageRepository#findByPostedBy}, served by the (postedBy, messageId) index.
+     */
+    public Flux<Message> findByPostedBy(int postedBy) {
+        return databaseClient.sql("select " + COLUMNS + " from message where postedBy = :postedBy order by messageId")
+                .bind("postedBy", postedBy)
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    /**
+     * Keyset page over one user's messages, equivalent to
+     * {@link MessageRepository#findByPostedByAndMessageIdGreaterThanOrderByMessageIdAsc}.
+     */
+    public Flux<Message> findByPostedByAndMessageIdGreaterThan(int postedBy, int messageId, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from message where postedBy = :postedBy and messageId > :after"
+                        + " order by messageId limit :limit")
+                .bind("postedBy", postedBy)
+                .bind("after", messageId)
+                .bind("limit", limit)
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    /**
+     * Time-range page over all messages, equivalent to {@link MessageRepository#findPostedBetween}.
+     */
+    public Flux<Message> findPostedBetween(long since, long until, int before, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from message where " + TIME_RANGE
+                        + " order by timePostedEpoch desc, messageId desc limit :limit")
+                .bind("since", since)
+                .bind("until", until)
+                .bind("before", before)
+                .bind("limit", limit)
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    /**
+     * Time-range page over one user's messages, equivalent to
+     * {@link MessageRepository#findByPostedByPostedBetween}.
+     */
+    public Flux<Message> findByPostedByPostedBetween(int postedBy, long since, long until, int before, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from message where postedBy = :postedBy and " + TIME_RANGE
+                        + " order by postedBy, timePostedEpoch desc, messageId desc limit :limit")
+                .bind("postedBy", postedBy)
+                .bind("since", since)
+                .bind("until", until)
+                .bind("before", before)
+                .bind("limit", limit)
+                .map(ReactiveMessageRepository::toMessage)
+                .all();
+    }
+
+    /**
+     * Inserts the message with a newly allocated ID.
+     * @return the message with its ID set
+     */
+    public Mono<Message> insert(Message message) {
+        return ids.nextId().flatMap(id -> {
+            DatabaseClient.GenericExecuteSpec insert = databaseClient
+                    .sql("insert into message (" + COLUMNS + ") values (:id, :postedBy, :messageText, :timePostedEpoch)")
+                    .bind("id", id)
+                    .bind("postedBy", message.getPostedBy())
+                    .bind("messageText", message.getMessageText());
+            insert = message.getTimePostedEpoch() == null
+                    ? insert.bindNull("timePostedEpoch", Long.class)
+                    : insert.bind("timePostedEpoch", message.getTimePostedEpoch());
+            return insert.then()
+                    .thenReturn(new Message(id, message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch()));
+        });
+    }
+
+    /**
+     * @return the number of rows updated
+     */
+    public Mono<Long> updateMessageText(int messageId, String messageText) {
+        return databaseClient.sql("update message set messageText = :messageText where messageId = :id")
+                .bind("messageText", messageText)
+                .bind("id", messageId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public Mono<Long> deleteById(int messageId) {
+        return databaseClient.sql("delete from message where messageId = :id")
+                .bind("id", messageId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Message toMessage(Readable row) {
+        return new Message(
+                row.get("messageId", Integer.class),
+                row.get("postedBy", Integer.class),
+                row.get("messageText", String.class),
+                row.get("timePostedEpoch", Long.class));
+    }
+}
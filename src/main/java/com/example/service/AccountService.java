@@ -6,23 +6,87 @@ import com.example.repository.AccountRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import javax.transaction.Transactional;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing accounts.
  * Provides methods for account registration and login.
+ * Username lookups are answered from a bounded username-to-account cache, and a Bloom
+ * filter of every registered username lets lookups of unknown usernames skip the database.
+ * The filter is filled at startup and on registration, so it assumes accounts are only
+ * created through this service.
+ * Passwords are stored as salted PBKDF2 hashes, computed on the {@link PasswordHasher} pool
+ * rather than the calling thread, so registration and login complete asynchronously; the database
+ * writes that follow a hash run on the application task executor, so they never hold a hashing
+ * thread. Accounts
+ * returned to callers carry the password that was submitted, never the stored hash.
+ * Username lookups run in read-only transactions, which the "replication" profile sends to the replica.
  */
 @Service
 @AllArgsConstructor
 @NoArgsConstructor
 public class AccountService {
 
+    /**
+     * Cache of accounts keyed by username.
+     */
+    public static final String ACCOUNT_CACHE = "accountsByUsername";
+
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+
     @Autowired
     private AccountRepository accountRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private KnownAccountIds knownAccountIds;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+
+    @Value("${app.accounts.expected-usernames:1000000}")
+    private long expectedUsernames;
+    @Value("${app.accounts.username-filter-fpp:0.01}")
+    private double usernameFilterFpp;
+
+    private UsernameBloomFilter knownUsernames;
+
+    /**
+     * Fills the username filter from the database before the application starts serving requests.
+     */
+    @PostConstruct
+    public void loadKnownUsernames() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(expectedUsernames, usernameFilterFpp);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<String> usernames = accountRepository.streamAllUsernames()) {
+                usernames.forEach(filter::add);
+            }
+        });
+        knownUsernames = filter;
+    }
 
     /**
      * Registers a new account.
@@ -30,40 +94,122 @@ public class AccountService {
      * - The username is not blank.
      * - The password is at least 4 characters long.
      * - An account with the same username does not already exist.
+     * The password is hashed on the hashing pool; the account is then inserted on the task executor.
      *
      * @param account the account to register
-     * @return the registered Account entity if successful, otherwise null
-     * @throws DuplicateUsernameException if the username already exists
+     * @return the registered Account entity if successful, otherwise null. The future fails with a
+     *         {@link DuplicateUsernameException} if the username already exists, or with a
+     *         {@link java.util.concurrent.RejectedExecutionException} if the hashing pool is full.
      */
-    @Transactional
-    public Account registerAccount(Account account) {
+    @Timed("app.service")
+    public CompletableFuture<Account> registerAccount(Account account) {
         if (account.getUsername() == null 
         || account.getUsername().isBlank()
         || account.getPassword() == null
         || account.getPassword().length() < 4) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
-        Account existing = accountRepository.findByUsername(account.getUsername());
+        Account existing = findByUsername(account.getUsername());
         if (existing != null) {
-            throw new DuplicateUsernameException("Username already exists");
+            return CompletableFuture.failedFuture(new DuplicateUsernameException("Username already exists"));
         }
-        return accountRepository.save(account);
+        return passwordHasher.hashAsync(account.getPassword()).thenApplyAsync(hash -> {
+            Account saved;
+            try {
+                saved = new TransactionTemplate(transactionManager).execute(status ->
+                        accountRepository.saveAndFlush(new Account(account.getUsername(), hash)));
+            } catch (DataIntegrityViolationException e) {
+                throw new DuplicateUsernameException("Username already exists");
+            }
+            knownUsernames.add(saved.getUsername());
+            knownAccountIds.add(saved.getAccountId());
+            accountCache().put(saved.getUsername(), saved);
+            return withPassword(saved, account.getPassword());
+        }, taskExecutor);
     }
 
     /**
      * Authenticates a user.
      * Login is successful if the provided username and password match an existing account.
+     * The password is verified on the hashing pool. Accounts whose stored password is plain
+     * text or was hashed with a different cost are rehashed with the current cost on success,
+     * and the new hash is stored on the task executor. A rehash that fails, for instance because
+     * the hashing pool is full, is logged and does not fail the login.
      *
      * @param login the account credentials for authentication
-     * @return the Account entity if login is successful, otherwise null
+     * @return the Account entity if login is successful, otherwise null. The future fails with a
+     *         {@link java.util.concurrent.RejectedExecutionException} if the hashing pool is full.
      */
-    @Transactional
-    public Account login(Account login) {
-        Account account = accountRepository.findByUsername(login.getUsername());
-        if (account != null && account.getPassword().equals(login.getPassword())) {
-            return account;
+    @Timed("app.service")
+    public CompletableFuture<Account> login(Account login) {
+        Account account = findByUsername(login.getUsername());
+        if (account == null || login.getPassword() == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        return null;
+        return passwordHasher.matchesAsync(login.getPassword(), account.getPassword()).thenCompose(matches -> {
+            if (!matches) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Account authenticated = withPassword(account, login.getPassword());
+            if (!passwordHasher.needsRehash(account.getPassword())) {
+                return CompletableFuture.completedFuture(authenticated);
+            }
+            return passwordHasher.hashAsync(login.getPassword())
+                    .thenAcceptAsync(hash -> updatePassword(account, hash), taskExecutor)
+                    .handle((updated, e) -> {
+                        if (e != null) {
+                            // The password was verified; the rehash is retried on the next login.
+                            log.warn("Could not rehash the password of account {}", account.getAccountId(), e);
+                        }
+                        return authenticated;
+                    });
+        });
+    }
+
+    /**
+     * Replaces an account's stored password with a hash at the current cost and refreshes the cache.
+     *
+     * @param account the stored account
+     * @param hash the new hash of its verified password
+     */
+    private void updatePassword(Account account, String hash) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                accountRepository.updatePassword(account.getAccountId(), hash));
+        accountCache().put(account.getUsername(), new Account(account.getAccountId(), account.getUsername(), hash));
+    }
+
+    /**
+     * Copies an account with the given password in place of the stored one.
+     */
+    private static Account withPassword(Account account, String password) {
+        return new Account(account.getAccountId(), account.getUsername(), password);
+    }
+
+    /**
+     * Looks up an account by username, consulting the username filter and the cache before the database.
+     *
+     * @param username the username to look up
+     * @return the account, or null if no account has that username
+     */
+    private Account findByUsername(String username) {
+        if (username == null || !knownUsernames.mightContain(username)) {
+            return null;
+        }
+        Cache cache = accountCache();
+        Account account = cache.get(username, Account.class);
+        if (account == null) {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            account = readOnly.execute(status -> accountRepository.findByUsername(username));
+            if (account != null) {
+                cache.put(username, account);
+            }
+        }
+        return account;
+    }
+
+    private Cache accountCache() {
+        return cacheManager.getCache(ACCOUNT_CACHE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package com.example.service;
+
+import com.example.dto.TimeRangePage;
+import com.example.entity.Follow;
+import com.example.entity.FollowId;
+import com.example.entity.Message;
+import com.example.repository.FollowRepository;
+import com.example.repository.MessageRepository;
+import com.example.sharding.MessageShards;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class for follow relationships and home feeds.
+ * A home feed holds the messages of the accounts a user follows and the user's own messages, newest first
+ * by posting time and then by message ID; a message without a posting time counts as posted at 0.
+ * Message IDs alone are not ordered by time, since each shard allocates them from its own range.
+ * Each feed is materialized as a bounded list of message IDs with their posting times that new messages are pushed into
+ * as they are posted (fan-out on write). Posters with more followers than the fan-out threshold
+ * are not pushed; their messages are merged in when a feed is read (fan-out on read).
+ * Materialized feeds live in a bounded cache and are rebuilt from the database when missing.
+ */
+@Service
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeedService {
+
+    /**
+     * Order of feeds: newest first by posting time, then by descending message ID.
+     */
+    private static final Comparator<Message> NEWEST_FIRST = Comparator.comparing(FeedEntry::of);
+
+    @Autowired
+    private FollowRepository followRepository;
+    @Autowired
+    private KnownAccountIds knownAccountIds;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private MessageShards shards;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.feed.timeline-capacity:800}")
+    private int timelineCapacity;
+    @Value("${app.feed.fan-out-threshold:10000}")
+    private long fanOutThreshold;
+    @Value("${app.feed.max-timelines:100000}")
+    private long maxTimelines;
+
+    private Cache<Integer, Timeline> timelines;
+
+    @PostConstruct
+    public void createTimelineCache() {
+        timelines = Caffeine.newBuilder().maximumSize(maxTimelines).recordStats().build();
+        // Same tag keys as the Spring-managed caches; Prometheus rejects a meter name registered with different keys.
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "feedTimelines", "cache.manager", "feedService", "name", "feedTimelines");
+    }
+
+    /**
+     * Makes one account follow another.
+     * Following is successful if both accounts exist and are different; following an
+     * account that is already followed succeeds without change.
+     *
+     * @param followerId the ID of the account that follows
+     * @param followeeId the ID of the account to follow
+     * @return the Follow entity if successful, otherwise null
+     */
+    @Transactional
+    @Timed("app.service")
+    public Follow follow(Integer followerId, Integer followeeId) {
+        if (followerId == null || followeeId == null || followerId.equals(followeeId)
+                || knownAccountIds.existing(List.of(followerId, followeeId)).size() != 2) {
+            return null;
+        }
+        Follow follow = followRepository.findById(new FollowId(followerId, followeeId))
+                .orElseGet(() -> followRepository.save(new Follow(followerId, followeeId)));
+        Transactions.afterCommit(() -> timelines.invalidate(followerId));
+        return follow;
+    }
+
+    /**
+     * Removes a follow relationship.
+     *
+     * @param followerId the ID of the account that follows
+     * @param followeeId the ID of the followed account
+     * @return the removed Follow entity if it existed, otherwise null
+     */
+    @Transactional
+    @Timed("app.service")
+    public Follow unfollow(Integer followerId, Integer followeeId) {
+        if (followerId == null || followeeId == null) {
+            return null;
+        }
+        Follow follow = followRepository.findById(new FollowId(followerId, followeeId)).orElse(null);
+        if (follow != null) {
+            followRepository.delete(follow);
+            Transactions.afterCommit(() -> timelines.invalidate(followerId));
+        }
+        return follow;
+    }
+
+    /**
+     * Pushes a newly created message into the materialized feeds of its poster and, unless the
+     * poster has more followers than the fan-out threshold, of each follower. Feeds that are not
+     * currently materialized are skipped; they pick the message up when rebuilt.
+     * Should be called after the message has been committed.
+     *
+     * @param message the created message
+     */
+    @Timed("app.service")
+    public void onMessageCreated(Message message) {
+        Integer poster = message.getPostedBy();
+        if (poster == null) {
+            return;
+        }
+        FeedEntry entry = FeedEntry.of(message);
+        push(poster, entry);
+        if (followRepository.countByFolloweeId(poster) > fanOutThreshold) {
+            return;
+        }
+        for (Integer follower : followRepository.findFollowerIds(poster)) {
+            push(follower, entry);
+        }
+    }
+
+    /**
+     * Retrieves one page of an account's home feed, newest first.
+     * The first page is requested without a cursor; each following page by passing the previous
+     * page's `nextUntil` as `until` and `nextCursor` as `before`.
+     *
+     * @param accountId the ID of the account whose feed to read
+     * @param until the posting time of the message to continue below, or null to start from the newest message
+     * @param before the message ID of the message to continue below, or null to start from the newest message
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of messages, or null if the limit is out of range or only half a cursor is given
+     */
+    @Timed("app.service")
+    public TimeRangePage getFeed(Integer accountId, Long until, Integer before, Integer limit) {
+        int size = limit == null ? MessageService.DEFAULT_PAGE_SIZE : limit;
+        if (accountId == null || size < 1 || size > MessageService.MAX_PAGE_SIZE || (until == null) != (before == null)) {
+            return null;
+        }
+        FeedEntry cursor = before == null ? FeedEntry.NEWEST : new FeedEntry(until, before);
+        Timeline timeline = timelines.get(accountId, this::buildTimeline);
+
+        List<FeedEntry> held = timeline.below(cursor, size + 1);
+        if (held.size() <= size && timeline.truncated) {
+            // The page reaches past the oldest held message, so read the whole page from the database.
+            Set<Integer> posters = new HashSet<>(timeline.sources);
+            posters.addAll(timeline.celebrities);
+            return toPage(recentMessages(posters, cursor, size + 1), size);
+        }
+
+        Map<Integer, Message> loaded = new HashMap<>();
+        List<FeedEntry> candidates = new ArrayList<>(held);
+        if (!timeline.celebrities.isEmpty()) {
+            for (Message message : recentMessages(timeline.celebrities, cursor, size + 1)) {
+                loaded.put(message.getMessageId(), message);
+                candidates.add(FeedEntry.of(message));
+            }
+            Collections.sort(candidates);
+        }
+        boolean hasMore = candidates.size() > size;
+        List<FeedEntry> page = hasMore ? candidates.subList(0, size) : candidates;
+        List<Integer> missing = new ArrayList<>();
+        for (FeedEntry entry : page) {
+            if (!loaded.containsKey(entry.messageId)) {
+                missing.add(entry.messageId);
+            }
+        }
+        for (List<Message> found : shards.onEveryShard(() -> messageRepository.findAllById(missing))) {
+            for (Message message : found) {
+                loaded.put(message.getMessageId(), message);
+            }
+        }
+        List<Message> messages = new ArrayList<>(page.size());
+        for (FeedEntry entry : page) {
+            Message message = loaded.get(entry.messageId);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        FeedEntry last = hasMore ? page.get(size - 1) : null;
+        return new TimeRangePage(messages, last != null ? last.postedAt : null, last != null ? last.messageId : null);
+    }
+
+    private void push(Integer accountId, FeedEntry entry) {
+        Timeline timeline = timelines.getIfPresent(accountId);
+        if (timeline != null) {
+            timeline.add(entry);
+        }
+    }
+
+    /**
+     * Materializes a feed from the database: the most recent messages of the account itself and
+     * of every followee below the fan-out threshold. Followees above it are recorded so their
+     * messages can be merged in at read time.
+     */
+    private Timeline buildTimeline(Integer accountId) {
+        List<Integer> followees = followRepository.findFolloweeIds(accountId);
+        List<Integer> celebrities = followees.isEmpty()
+                ? List.of()
+                : followRepository.findFolloweesWithMoreFollowersThan(followees, fanOutThreshold);
+        Set<Integer> sources = new HashSet<>(followees);
+        sources.removeAll(celebrities);
+        sources.add(accountId);
+        Timeline timeline = new Timeline(timelineCapacity, List.copyOf(sources), List.copyOf(celebrities));
+        for (Message message : recentMessages(sources, FeedEntry.NEWEST, timelineCapacity + 1)) {
+            timeline.add(FeedEntry.of(message));
+        }
+        return timeline;
+    }
+
+    /**
+     * Reads the newest messages of the given posters below a cursor from their shards, merged newest first.
+     */
+    private List<Message> recentMessages(Collection<Integer> posters, FeedEntry cursor, int count) {
+        List<List<Message>> perShard = shards.onShardsOf(posters, poster -> poster, group ->
+                messageRepository.findByPostedByInPostedBefore(
+                        group, cursor.postedAt, cursor.messageId, PageRequest.of(0, count)));
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<Message> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > count ? new ArrayList<>(merged.subList(0, count)) : merged;
+    }
+
+    private static TimeRangePage toPage(List<Message> messages, int size) {
+        if (messages.size() <= size) {
+            return new TimeRangePage(messages, null, null);
+        }
+        List<Message> page = new ArrayList<>(messages.subList(0, size));
+        FeedEntry last = FeedEntry.of(page.get(size - 1));
+        return new TimeRangePage(page, last.postedAt, last.messageId);
+    }
+
+    /**
+     * Position of a message in a feed: its posting time, 0 if it has none, and its ID. Ordered newest first.
+     */
+    private static final class FeedEntry implements Comparable<FeedEntry> {
+        /**
+         * Cursor above every message.
+         */
+        static final FeedEntry NEWEST = new FeedEntry(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+        private final long postedAt;
+        private final int messageId;
+
+        FeedEntry(long postedAt, int messageId) {
+            this.postedAt = postedAt;
+            this.messageId = messageId;
+        }
+
+        static FeedEntry of(Message message) {
+            Long postedAt = message.getTimePostedEpoch();
+            return new FeedEntry(postedAt == null ? 0 : postedAt, message.getMessageId());
+        }
+
+        @Override
+        public int compareTo(FeedEntry other) {
+            int byTime = Long.compare(other.postedAt, postedAt);
+            return byTime != 0 ? byTime : Integer.compare(other.messageId, messageId);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof FeedEntry entry && entry.postedAt == postedAt && entry.messageId == messageId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(postedAt) * 31 + messageId;
+        }
+    }
+
+    /**
+     * Materialized feed of one account: the newest messages from its fanned-out sources,
+     * bounded to a fixed capacity by dropping the oldest.
+     */
+    private static final class Timeline {
+        private final ConcurrentSkipListSet<FeedEntry> entries = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+        /**
+         * Posters whose messages are pushed into this feed.
+         */
+        private final List<Integer> sources;
+        /**
+         * Followed posters over the fan-out threshold, merged in at read time.
+         */
+        private final List<Integer> celebrities;
+        /**
+         * Whether older messages from the sources exist that this feed no longer holds.
+         */
+        private volatile boolean truncated;
+
+        Timeline(int capacity, List<Integer> sources, List<Integer> celebrities) {
+            this.capacity = capacity;
+            this.sources = sources;
+            this.celebrities = celebrities;
+        }
+
+        void add(FeedEntry entry) {
+            if (entries.add(entry) && size.incrementAndGet() > capacity) {
+                if (entries.pollLast() != null) {
+                    size.decrementAndGet();
+                }
+                truncated = true;
+            }
+        }
+
+        List<FeedEntry> below(FeedEntry cursor, int count) {
+            List<FeedEntry> result = new ArrayList<>(count);
+            Iterator<FeedEntry> iterator = entries.tailSet(cursor, false).iterator();
+            while (result.size() < count && iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String hashing shared by the probabilistic structures: {@link UsernameBloomFilter} and
+ * {@link TrendingCounter}.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+     * so both 32-bit halves are usable as independent hashes.
+     *
+     * @param value the string to hash
+     * @return the hash
+     */
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.service;
+
+import com.example.repository.AccountRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Existence checks for account IDs that usually need no query.
+ * IDs of existing accounts are kept as one bit each in a growable bitmap, filled from the
+ * database at startup and as accounts are registered or found. Accounts are never deleted, so a
+ * set bit is a definite answer; an ID without one is checked with an indexed primary key query
+ * and remembered if the account exists, which covers accounts inserted outside the application.
+ * IDs above {@value #MAX_TRACKED_ID} are always checked in the database.
+ */
+@Component
+public class KnownAccountIds {
+
+    /**
+     * Largest ID kept in the bitmap, which then takes 16 MB.
+     */
+    static final int MAX_TRACKED_ID = (1 << 27) - 1;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(1024);
+
+    /**
+     * Marks the ID of every account in the database as known.
+     */
+    @PostConstruct
+    public void load() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<Integer> ids = accountRepository.streamAllIds()) {
+                ids.forEach(this::add);
+            }
+        });
+    }
+
+    /**
+     * Checks whether an account exists, querying the database only if its ID is not known yet.
+     *
+     * @param accountId the account ID, may be null
+     * @return true if the account exists
+     */
+    public boolean exists(Integer accountId) {
+        if (accountId == null) {
+            return false;
+        }
+        if (contains(accountId)) {
+            return true;
+        }
+        if (!accountRepository.existsById(accountId)) {
+            return false;
+        }
+        add(accountId);
+        return true;
+    }
+
+    /**
+     * Returns which of the given account IDs exist, with one query for all IDs that are not known yet.
+     *
+     * @param accountIds the account IDs
+     * @return the IDs of the accounts that exist
+     */
+    public Set<Integer> existing(Collection<Integer> accountIds) {
+        Set<Integer> existing = new HashSet<>();
+        Set<Integer> unknown = new HashSet<>();
+        for (Integer accountId : accountIds) {
+            if (accountId != null) {
+                (contains(accountId) ? existing : unknown).add(accountId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Integer accountId : accountRepository.findExistingIds(unknown)) {
+                add(accountId);
+                existing.add(accountId);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * @param accountId the account ID
+     * @return true if the ID is known to belong to an existing account
+     */
+    public boolean contains(int accountId) {
+        if (accountId < 0 || accountId > MAX_TRACKED_ID) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int word = accountId >>> 6;
+        return word < current.length() && (current.get(word) & (1L << accountId)) != 0;
+    }
+
+    /**
+     * Records the ID of an existing account.
+     *
+     * @param accountId the account ID
+     */
+    public synchronized void add(int accountId) {
+        if (accountId < 0 || accountId > MAX_TRACKED_ID) {
+            return;
+        }
+        int word = accountId >>> 6;
+        AtomicLongArray current = words;
+        if (word >= current.length()) {
+            int length = current.length();
+            while (length <= word) {
+                length *= 2;
+            }
+            AtomicLongArray grown = new AtomicLongArray(length);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            words = grown;
+            current = grown;
+        }
+        long bit = 1L << accountId;
+        current.getAndAccumulate(word, bit, (a, b) -> a | b);
+    }
+}
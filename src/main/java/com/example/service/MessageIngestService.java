@@ -0,0 +1,224 @@
+package com.example.service;
+
+import com.example.entity.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind ingestion of new messages, enabled with {@code app.ingest.enabled}.
+ * A request checks its message with the rules of {@link MessageService#createMessage(Message, Integer)}
+ * and places it in a bounded queue instead of opening a transaction. One writer thread takes
+ * queued messages in batches of up to {@code app.ingest.max-batch} and inserts each batch in a
+ * single transaction, so concurrent posts share one commit. A batch is written as soon as it is
+ * full, or once its oldest message has waited {@code app.ingest.max-delay}.
+ * <p>
+ * The future of a message completes with the saved message, ID set, only after its batch has
+ * committed. If a batch fails, its messages are retried in one transaction each, so one bad message
+ * fails only its own request. The queue is lock-free: producers reserve one of
+ * {@code app.ingest.queue-capacity} places with an atomic counter, and a submission that finds no
+ * place fails with a {@link RejectedExecutionException}. Messages still queued at shutdown are
+ * written before the writer stops.
+ */
+@Service
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageIngestService {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Value("${app.ingest.enabled:false}")
+    private boolean enabled;
+    @Value("${app.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${app.ingest.max-batch:500}")
+    private int maxBatch;
+    @Value("${app.ingest.max-delay:5ms}")
+    private Duration maxDelay;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    // queued messages plus places reserved by producers that have not offered theirs yet
+    private final AtomicInteger size = new AtomicInteger();
+    // set while the writer parks on an empty queue, so the next offer wakes it
+    private volatile boolean idle;
+    private volatile boolean running;
+    private Thread writer;
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            running = true;
+            writer = new Thread(this::writeLoop, "message-ingest-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            LockSupport.unpark(writer);
+            writer.join();
+            // a submission that raced with shutdown past the writer's last check
+            Pending late;
+            while ((late = queue.poll()) != null) {
+                late.future.completeExceptionally(new RejectedExecutionException("Message ingestion has stopped"));
+            }
+        }
+    }
+
+    /**
+     * @return true if new messages go through the queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a new message posted as its `postedBy`, or as `userId` if that is empty.
+     *
+     * @param message the message to create
+     * @param userId the ID of the account posting the message, may be null
+     * @return the saved message once committed; null if the message is invalid; or a failed
+     *         future if the queue is full
+     */
+    public CompletableFuture<Message> submit(Message message, Integer userId) {
+        if (!messageService.prepareNewMessage(message, userId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(message);
+    }
+
+    /**
+     * Queues a new message for an authenticated account.
+     *
+     * @param message the message to create
+     * @param accountId the authenticated account
+     * @return the saved message once committed; null if the message is invalid; or a failed
+     *         future if the queue is full
+     */
+    public CompletableFuture<Message> submitAs(Message message, int accountId) {
+        if (!messageService.prepareNewMessageAs(message, accountId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(message);
+    }
+
+    private CompletableFuture<Message> enqueue(Message message) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Message ingestion is not running"));
+        }
+        int waiting = size.incrementAndGet();
+        if (waiting > queueCapacity) {
+            size.decrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Message ingest queue is full"));
+        }
+        message.setMessageId(null);
+        Pending pending = new Pending(message, System.nanoTime());
+        queue.offer(pending);
+        // the writer parks when the queue is empty and while a batch fills; `waiting` also counts
+        // places reserved by other producers, so it cannot tell whether the queue was empty
+        if (idle || waiting == maxBatch) {
+            LockSupport.unpark(writer);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Writes batches until stopped and the queue is empty.
+     */
+    private void writeLoop() {
+        long maxDelayNanos = maxDelay.toNanos();
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || size.get() > 0) {
+            Pending oldest = queue.peek();
+            if (oldest == null) {
+                if (running) {
+                    idle = true;
+                    // an offer made before `idle` was set is seen here; one made after sees `idle`
+                    if (queue.peek() == null) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            long wait = oldest.queuedAt + maxDelayNanos - System.nanoTime();
+            if (running && wait > 0 && size.get() < maxBatch) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            Pending next;
+            while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(next);
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch and completes its futures. Errors are caught as well as exceptions: the writer
+     * is the only thread that completes the futures, so it must outlive any failed batch.
+     */
+    private void write(List<Pending> batch) {
+        try {
+            List<Message> messages = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                messages.add(pending.message);
+            }
+            messageService.saveNewMessages(messages);
+            batch.forEach(pending -> pending.future.complete(pending.message));
+        } catch (Throwable e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            for (Pending pending : batch) {
+                pending.message.setMessageId(null);
+                try {
+                    messageService.saveNewMessages(List.of(pending.message));
+                    pending.future.complete(pending.message);
+                } catch (Throwable single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued message and the future of its request.
+     */
+    private static final class Pending {
+        final Message message;
+        final long queuedAt;
+        final CompletableFuture<Message> future = new CompletableFuture<>();
+
+        Pending(Message message, long queuedAt) {
+            this.message = message;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,680 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over message text for ranked full-text search.
+ * Text is split into lower-cased runs of letters and digits. Each term's postings list is a single
+ * byte array of variable-length integers holding, per document, the gap from the previous document,
+ * the term frequency and the gaps between the term's positions, with a skip entry every
+ * {@value #SKIP_INTERVAL} documents so that AND queries can jump through long lists.
+ * <p>
+ * Documents are numbered in the order they are indexed rather than by message ID, so every list
+ * stays sorted by appending alone. Updating or removing a message marks its old document deleted;
+ * once deleted documents outnumber live ones the lists are rewritten without them and the
+ * remaining documents renumbered. Queries are the AND of their terms and quoted phrases, ranked
+ * by BM25. Searches run concurrently and wait only while a change is being applied.
+ */
+public class MessageSearchIndex {
+
+    /**
+     * Number of documents between skip entries of a postings list.
+     */
+    static final int SKIP_INTERVAL = 128;
+
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    private static final int MAX_LENGTH = 255;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int[] NO_SKIPS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final IntIntMap docsByMessageId = new IntIntMap();
+    private int[] messageIds = new int[1024];
+    private byte[] lengths = new byte[1024];
+    private long[] deleted = new long[16];
+    private int nextDoc = 1;
+    private int liveDocs;
+    private long totalLength;
+    private int deletedDocs;
+
+    /**
+     * Indexes the text of a message, replacing any text indexed for it before.
+     *
+     * @param messageId the message ID
+     * @param text the message text
+     */
+    public void add(int messageId, String text) {
+        List<String> terms = tokenize(text);
+        lock.writeLock().lock();
+        try {
+            removeDoc(messageId);
+            addDoc(messageId, terms);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a message from the index; removing a message that is not indexed does nothing.
+     *
+     * @param messageId the message ID
+     */
+    public void remove(int messageId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(messageId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of messages in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the messages containing every term and quoted phrase of a query, best matches first.
+     * Ties are broken in favour of the most recently indexed message.
+     *
+     * @param query terms and double-quoted phrases, matched case-insensitively
+     * @param offset the number of best matches to skip
+     * @param limit the maximum number of message IDs to return
+     * @return the total number of matches and the requested slice of their message IDs
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String[]> clauses = parse(query);
+        if (clauses.isEmpty() || limit <= 0) {
+            return Hits.NONE;
+        }
+        lock.readLock().lock();
+        try {
+            return execute(clauses, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits.
+     *
+     * @param text the text, may be null
+     * @return the terms in order of occurrence
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Parses a query into clauses: a single term, or the terms of a quoted phrase in order.
+     * An unterminated quote extends the phrase to the end of the query.
+     */
+    static List<String[]> parse(String query) {
+        List<String[]> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        String[] segments = query.split("\"", -1);
+        for (int i = 0; i < segments.length; i++) {
+            List<String> terms = tokenize(segments[i]);
+            if (i % 2 == 1 && terms.size() > 1) {
+                clauses.add(terms.toArray(new String[0]));
+            } else {
+                for (String term : terms) {
+                    clauses.add(new String[] {term});
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private void addDoc(int messageId, List<String> terms) {
+        int doc = nextDoc++;
+        if (doc == messageIds.length) {
+            messageIds = Arrays.copyOf(messageIds, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            deleted = Arrays.copyOf(deleted, (doc * 2 + 63) >>> 6);
+        }
+        int length = Math.min(terms.size(), MAX_LENGTH);
+        messageIds[doc] = messageId;
+        lengths[doc] = (byte) length;
+        docsByMessageId.put(messageId, doc);
+        liveDocs++;
+        totalLength += length;
+
+        // positions of each distinct term, preceded by their count
+        Map<String, int[]> positions = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            int[] list = positions.get(term);
+            if (list == null) {
+                list = new int[4];
+                positions.put(term, list);
+            } else if (list[0] + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                positions.put(term, list);
+            }
+            list[++list[0]] = i;
+        }
+        positions.forEach((term, list) -> postings.computeIfAbsent(term, t -> new Postings()).add(doc, list, 1, list[0]));
+    }
+
+    private void removeDoc(int messageId) {
+        int doc = docsByMessageId.remove(messageId);
+        if (doc == 0) {
+            return;
+        }
+        deleted[doc >>> 6] |= 1L << doc;
+        liveDocs--;
+        totalLength -= lengths[doc] & 0xFF;
+        deletedDocs++;
+    }
+
+    private boolean isDeleted(int doc) {
+        return (deleted[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    private void compactIfNeeded() {
+        if (deletedDocs >= MIN_DELETED_TO_COMPACT && deletedDocs > liveDocs) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites every postings list without deleted documents, renumbering the live documents
+     * consecutively in their original order so that all lists stay sorted.
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDoc];
+        int live = 1;
+        for (int doc = 1; doc < nextDoc; doc++) {
+            if (!isDeleted(doc)) {
+                renumbered[doc] = live;
+                messageIds[live] = messageIds[doc];
+                lengths[live] = lengths[doc];
+                docsByMessageId.put(messageIds[live], live);
+                live++;
+            }
+        }
+        Iterator<Map.Entry<String, Postings>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Postings> entry = entries.next();
+            Postings rewritten = new Postings();
+            Cursor cursor = new Cursor(entry.getValue());
+            while (cursor.next()) {
+                if (renumbered[cursor.doc] != 0) {
+                    rewritten.add(renumbered[cursor.doc], cursor.positions(), 0, cursor.freq);
+                }
+            }
+            if (rewritten.docCount == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(rewritten);
+            }
+        }
+        Arrays.fill(deleted, 0);
+        nextDoc = live;
+        deletedDocs = 0;
+    }
+
+    private Hits execute(List<String[]> clauses, int offset, int limit) {
+        Map<String, Cursor> cursors = new HashMap<>();
+        List<Cursor[]> phrases = new ArrayList<>();
+        for (String[] clause : clauses) {
+            Cursor[] clauseCursors = new Cursor[clause.length];
+            for (int i = 0; i < clause.length; i++) {
+                Cursor cursor = cursors.get(clause[i]);
+                if (cursor == null) {
+                    Postings list = postings.get(clause[i]);
+                    if (list == null) {
+                        return Hits.NONE;
+                    }
+                    cursor = new Cursor(list);
+                    cursors.put(clause[i], cursor);
+                }
+                clauseCursors[i] = cursor;
+            }
+            if (clause.length > 1) {
+                phrases.add(clauseCursors);
+            }
+        }
+        // lead with the rarest term, so the others are only advanced to its candidates
+        Cursor[] ordered = cursors.values().toArray(new Cursor[0]);
+        Arrays.sort(ordered, Comparator.comparingInt(cursor -> cursor.postings.docCount));
+        float[] weights = new float[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            int docFrequency = ordered[i].postings.docCount;
+            int docs = Math.max(liveDocs, docFrequency);
+            weights[i] = (float) Math.log(1 + (docs - docFrequency + 0.5) / (docFrequency + 0.5)) * (K1 + 1);
+        }
+        float averageLength = liveDocs == 0 ? 1 : Math.max(1, (float) totalLength / liveDocs);
+        float[] norms = new float[MAX_LENGTH + 1];
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            norms[length] = K1 * (1 - B + B * length / averageLength);
+        }
+
+        TopDocs top = new TopDocs(offset + limit);
+        int total = 0;
+        Cursor lead = ordered[0];
+        int doc = lead.next() ? lead.doc : NO_MORE_DOCS;
+        while (doc != NO_MORE_DOCS) {
+            int candidate = doc;
+            for (int i = 1; i < ordered.length && candidate == doc; i++) {
+                candidate = ordered[i].advance(doc);
+            }
+            if (candidate != doc) {
+                doc = lead.advance(candidate);
+                continue;
+            }
+            if (!isDeleted(doc) && matchesPhrases(phrases)) {
+                total++;
+                float norm = norms[lengths[doc] & 0xFF];
+                float score = 0;
+                for (int i = 0; i < ordered.length; i++) {
+                    float tf = ordered[i].freq;
+                    score += weights[i] * tf / (tf + norm);
+                }
+                top.offer(score, doc);
+            }
+            doc = lead.next() ? lead.doc : NO_MORE_DOCS;
+        }
+
+        int[] docs = top.drainBestFirst();
+        int[] ids = new int[Math.max(0, docs.length - offset)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = messageIds[docs[offset + i]];
+        }
+        return new Hits(total, ids);
+    }
+
+    /**
+     * Checks the phrases against the document all cursors are on.
+     */
+    private static boolean matchesPhrases(List<Cursor[]> phrases) {
+        for (int i = 0; i < phrases.size(); i++) {
+            if (!matchesPhrase(phrases.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesPhrase(Cursor[] phrase) {
+        Cursor first = phrase[0];
+        int[] starts = first.positions();
+        for (int i = 1; i < phrase.length; i++) {
+            phrase[i].positions();
+        }
+        for (int s = 0; s < first.freq; s++) {
+            boolean match = true;
+            for (int i = 1; i < phrase.length && match; i++) {
+                match = Arrays.binarySearch(phrase[i].positions, 0, phrase[i].freq, starts[s] + i) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bounded min-heap of the best matches so far, each held as the score bits in the high half
+     * of a long and the document in the low half, so that comparing the longs ranks by score and
+     * then by the more recent document.
+     */
+    private static final class TopDocs {
+        private final long[] heap;
+        private int size;
+
+        TopDocs(int capacity) {
+            heap = new long[capacity];
+        }
+
+        void offer(float score, int doc) {
+            long entry = ((long) Float.floatToIntBits(score) << 32) | doc;
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) >>> 1] > entry) {
+                    heap[i] = heap[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                heap[i] = entry;
+            } else if (entry > heap[0]) {
+                siftDown(entry, size);
+            }
+        }
+
+        int[] drainBestFirst() {
+            int[] docs = new int[size];
+            for (int n = size; n > 0; n--) {
+                docs[n - 1] = (int) heap[0];
+                siftDown(heap[n - 1], n - 1);
+            }
+            return docs;
+        }
+
+        /**
+         * Replaces the root with the entry and restores the heap order among the first n entries.
+         */
+        private void siftDown(long entry, int n) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) {
+                    break;
+                }
+                if (child + 1 < n && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= entry) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (n > 0) {
+                heap[i] = entry;
+            }
+        }
+    }
+
+    /**
+     * The result of a search: the total number of matches and one page of message IDs.
+     */
+    public static final class Hits {
+        static final Hits NONE = new Hits(0, new int[0]);
+
+        private final int total;
+        private final int[] messageIds;
+
+        Hits(int total, int[] messageIds) {
+            this.total = total;
+            this.messageIds = messageIds;
+        }
+
+        /**
+         * @return the number of messages matching the query
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return the message IDs of the requested page, best match first
+         */
+        public int[] getMessageIds() {
+            return messageIds;
+        }
+    }
+
+    /**
+     * The postings of one term, in increasing document order.
+     */
+    private static final class Postings {
+        private byte[] data = new byte[8];
+        private int size;
+        private int docCount;
+        private int lastDoc;
+        // the document before, and the offset of, every SKIP_INTERVAL-th document after the first
+        private int[] skipDocs = NO_SKIPS;
+        private int[] skipOffsets = NO_SKIPS;
+
+        void add(int doc, int[] positions, int from, int count) {
+            if (docCount > 0 && docCount % SKIP_INTERVAL == 0) {
+                int skip = docCount / SKIP_INTERVAL - 1;
+                if (skip == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, Math.max(4, skip * 2));
+                    skipOffsets = Arrays.copyOf(skipOffsets, skipDocs.length);
+                }
+                skipDocs[skip] = lastDoc;
+                skipOffsets[skip] = size;
+            }
+            writeVInt(doc - lastDoc);
+            writeVInt(count);
+            int previous = 0;
+            for (int i = from; i < from + count; i++) {
+                writeVInt(positions[i] - previous);
+                previous = positions[i];
+            }
+            lastDoc = doc;
+            docCount++;
+        }
+
+        int skipCount() {
+            return docCount == 0 ? 0 : (docCount - 1) / SKIP_INTERVAL;
+        }
+
+        private void writeVInt(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+
+    /**
+     * Reads one postings list forwards. Starts before the first document.
+     */
+    private static final class Cursor {
+        final Postings postings;
+        int doc;
+        int freq;
+        // start of the current document's positions
+        private int offset;
+        private int read;
+        private int nextSkip;
+        private int[] positions = new int[8];
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        /**
+         * Moves to the next document.
+         *
+         * @return false if there is none
+         */
+        boolean next() {
+            if (read == postings.docCount) {
+                doc = NO_MORE_DOCS;
+                return false;
+            }
+            byte[] data = postings.data;
+            for (int i = 0; i < freq; i++) {
+                while ((data[offset++] & 0x80) != 0) {
+                    // skip the remaining bytes of the position
+                }
+            }
+            doc += readVInt();
+            freq = readVInt();
+            read++;
+            return true;
+        }
+
+        /**
+         * Moves to the first document at or after the target, using skip entries to jump over
+         * whole blocks of documents before it.
+         *
+         * @return the document, or {@link #NO_MORE_DOCS} if there is none
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            if (target == NO_MORE_DOCS) {
+                doc = NO_MORE_DOCS;
+                return doc;
+            }
+            int skip = -1;
+            int skipCount = postings.skipCount();
+            while (nextSkip < skipCount && postings.skipDocs[nextSkip] < target) {
+                skip = nextSkip++;
+            }
+            if (skip >= 0 && (skip + 1) * SKIP_INTERVAL > read) {
+                doc = postings.skipDocs[skip];
+                offset = postings.skipOffsets[skip];
+                read = (skip + 1) * SKIP_INTERVAL;
+                freq = 0;
+            }
+            while (doc < target) {
+                if (!next()) {
+                    return NO_MORE_DOCS;
+                }
+            }
+            return doc;
+        }
+
+        /**
+         * @return the positions of the term in the current document, in the first {@link #freq} elements
+         */
+        int[] positions() {
+            if (positions.length < freq) {
+                positions = new int[Math.max(freq, positions.length * 2)];
+            }
+            byte[] data = postings.data;
+            int at = offset;
+            int position = 0;
+            for (int i = 0; i < freq; i++) {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[at++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                position += value;
+                positions[i] = position;
+            }
+            return positions;
+        }
+
+        private int readVInt() {
+            byte[] data = postings.data;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Open-addressing map from message ID to document, with 0 meaning absent.
+     */
+    private static final class IntIntMap {
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        IntIntMap() {
+            allocate(1024);
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                rehash(keys.length * 2);
+            }
+            int i = slot(key);
+            while (keys[i] != FREE && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == FREE) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        int remove(int key) {
+            int gap = slot(key);
+            while (keys[gap] != key) {
+                if (keys[gap] == FREE) {
+                    return 0;
+                }
+                gap = (gap + 1) & mask;
+            }
+            int value = values[gap];
+            // shift later entries of the probe sequence back, so lookups never stop at the hole
+            for (int i = (gap + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+                if (((i - slot(keys[i])) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            keys[gap] = FREE;
+            size--;
+            return value;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            values = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
@@ -1,56 +1,268 @@
 package com.example.service;
 
-import com.example.entity.Account;
+import com.example.dto.MessageBatchResult;
+import com.example.dto.MessagePage;
+import com.example.dto.TimeRangePage;
 import com.example.entity.Message;
-import com.example.repository.AccountRepository;
 import com.example.repository.MessageRepository;
+import com.example.sharding.MessageShards;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import io.micrometer.core.annotation.Timed;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing messages.
  * Provides methods for creating, retrieving, updating, and deleting messages.
+ * Single messages and per-user message lists are served through read-through caches
+ * ({@value #MESSAGE_CACHE} and {@value #ACCOUNT_MESSAGES_CACHE}) whose entries are bound to the
+ * versions kept by {@link MessageVersions}, so a committed write retires them.
+ * Committed creations, updates and deletions are also applied to the {@link SearchService} index
+ * and advance the ETags kept by {@link MessageVersions},
+ * and the hashtags and mentions of new and updated text are stored by {@link TagService}.
+ * Reads run in read-only transactions, which the "replication" profile sends to the replica.
+ * Messages are stored on the shards chosen by {@link MessageShards}: reads by poster go to one
+ * shard, other reads query every shard and merge the results.
  */
 @Service
 @AllArgsConstructor
 @NoArgsConstructor
 public class MessageService {
 
+    /**
+     * Page size used when a paginated request does not specify a limit.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /**
+     * Largest page size a client may request.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+    /**
+     * Largest number of messages accepted by a single batch creation request.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+    /**
+     * Cache of individual messages keyed by message ID.
+     */
+    public static final String MESSAGE_CACHE = "messages";
+    /**
+     * Cache of the full message list of each account keyed by account ID.
+     */
+    public static final String ACCOUNT_MESSAGES_CACHE = "accountMessages";
+    /**
+     * Number of exported messages written between flushes of the output stream.
+     */
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    /**
+     * Order of time-range pages: newest first, then by descending message ID.
+     */
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparing(Message::getTimePostedEpoch, Comparator.reverseOrder())
+            .thenComparing(Message::getMessageId, Comparator.reverseOrder());
+
     @Autowired
     private MessageRepository messageRepository;
     @Autowired
-    private AccountRepository accountRepository;
+    private KnownAccountIds knownAccountIds;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private MessageShards shards;
+    @Autowired
+    private MessageVersions messageVersions;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Creates a new message.
      * The creation will be successful if:
      * - The message text is not blank.
      * - The message text is not over 255 characters.
-     * - The `postedBy` refers to an existing user.
+     * - The `postedBy` refers to an existing user, checked with {@link KnownAccountIds}.
+     * - The `userId`, if given, is the same as the `postedBy`; it is used when `postedBy` is empty.
      *
      * @param message the message entity to create
-     * @param userId the ID of the account posting the message
+     * @param userId the ID of the account posting the message, may be null
      * @return the created Message entity if successful, otherwise null
      */
     @Transactional
+    @Timed("app.service")
     public Message createMessage(Message message, Integer userId) {
-        if (message.getMessageText() == null || message.getMessageText().isBlank() || message.getMessageText().length() > 255) {
+        if (!prepareNewMessage(message, userId)) {
+            return null;
+        }
+        Message saved = shards.onShardOf(message.getPostedBy(), () -> insert(List.of(message)).get(0));
+        changedAfterCommit(List.of(saved));
+        Transactions.afterCommit(() -> onMessageCreated(saved));
+        return saved;
+    }
+
+    /**
+     * Creates a new message for an authenticated account.
+     * The account comes from a verified session token, so unlike {@link #createMessage(Message, Integer)}
+     * it is not looked up. The creation will be successful if:
+     * - The message text is not blank.
+     * - The message text is not over 255 characters.
+     * - The `postedBy` is empty or equal to the authenticated account.
+     *
+     * @param message the message entity to create; an empty `postedBy` is set to the account
+     * @param accountId the authenticated account
+     * @return the created Message entity if successful, otherwise null
+     */
+    @Transactional
+    @Timed("app.service")
+    public Message createMessageAs(Message message, int accountId) {
+        if (!prepareNewMessageAs(message, accountId)) {
+            return null;
+        }
+        Message saved = shards.onShardOf(message.getPostedBy(), () -> insert(List.of(message)).get(0));
+        changedAfterCommit(List.of(saved));
+        Transactions.afterCommit(() -> onMessageCreated(saved));
+        return saved;
+    }
+
+    /**
+     * Applies the rules of {@link #createMessage(Message, Integer)} to a new message without
+     * saving it, setting an empty `postedBy` to the `userId`.
+     *
+     * @param message the message to check
+     * @param userId the ID of the account posting the message, may be null
+     * @return true if the message may be created
+     */
+    public boolean prepareNewMessage(Message message, Integer userId) {
+        if (!isValidMessageText(message.getMessageText())) {
+            return false;
+        }
+        Integer postedBy = message.getPostedBy() != null ? message.getPostedBy() : userId;
+        if ((userId != null && !userId.equals(postedBy)) || !knownAccountIds.exists(postedBy)) {
+            return false;
+        }
+        message.setPostedBy(postedBy);
+        return true;
+    }
+
+    /**
+     * Applies the rules of {@link #createMessageAs(Message, int)} to a new message without
+     * saving it, setting an empty `postedBy` to the authenticated account.
+     *
+     * @param message the message to check
+     * @param accountId the authenticated account
+     * @return true if the message may be created
+     */
+    public boolean prepareNewMessageAs(Message message, int accountId) {
+        if (!isValidMessageText(message.getMessageText())) {
+            return false;
+        }
+        if (message.getPostedBy() == null) {
+            message.setPostedBy(accountId);
+        } else if (message.getPostedBy() != accountId) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Inserts messages that have passed {@link #prepareNewMessage(Message, Integer)} or
+     * {@link #prepareNewMessageAs(Message, int)} in one transaction, as JDBC batches. Used by
+     * {@link MessageIngestService} to commit a group of queued messages at once.
+     *
+     * @param messages the messages to insert; their IDs are set
+     * @return the same messages
+     */
+    @Transactional
+    @Timed("app.service")
+    public List<Message> saveNewMessages(List<Message> messages) {
+        shards.onShardsOf(messages, Message::getPostedBy, this::insert);
+        changedAfterCommit(messages);
+        Transactions.afterCommit(() -> messages.forEach(this::onMessageCreated));
+        return messages;
+    }
+
+    /**
+     * Creates several messages in one transaction.
+     * Each item is validated with the same rules as {@link #createMessage(Message, Integer)}, with
+     * its own `postedBy` as the posting user. All distinct posters are verified with at most one query,
+     * and the accepted messages are inserted as JDBC batches. Rejected items do not prevent the
+     * others from being created.
+     *
+     * @param messages the messages to create
+     * @return one result per item in request order, or null if the batch is empty or larger than {@value #MAX_BATCH_SIZE}
+     */
+    @Transactional
+    @Timed("app.service")
+    public List<MessageBatchResult> createMessages(List<Message> messages) {
+        if (messages == null || messages.isEmpty() || messages.size() > MAX_BATCH_SIZE) {
             return null;
         }
-        Account user = accountRepository.getById(userId);
-        if(user == null){return null;}
-        
-        return messageRepository.save(message);
+        Set<Integer> posters = new HashSet<>();
+        for (Message message : messages) {
+            if (message != null && message.getPostedBy() != null) {
+                posters.add(message.getPostedBy());
+            }
+        }
+        Set<Integer> existingPosters = knownAccountIds.existing(posters);
+
+        boolean[] valid = new boolean[messages.size()];
+        List<Message> accepted = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            if (message != null
+                    && isValidMessageText(message.getMessageText())
+                    && existingPosters.contains(message.getPostedBy())) {
+                message.setMessageId(null);
+                valid[i] = true;
+                accepted.add(message);
+            }
+        }
+        shards.onShardsOf(accepted, Message::getPostedBy, this::insert);
+
+        List<MessageBatchResult> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            results.add(valid[i] ? new MessageBatchResult(i, 200, messages.get(i)) : new MessageBatchResult(i, 400, null));
+        }
+        changedAfterCommit(accepted);
+        Transactions.afterCommit(() -> accepted.forEach(this::onMessageCreated));
+        return results;
     }
 
     /**
@@ -58,30 +270,142 @@ public class MessageService {
      *
      * @return a list of all Message entities
      */
-    @Transactional
+    @Transactional(readOnly = true)
+    @Timed("app.service")
     public List<Message> getAllMessages() {
-        return messageRepository.findAll();
+        return merge(shards.onEveryShard(messageRepository::findAll), Comparator.comparing(Message::getMessageId),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes every message to the output stream as newline-delimited JSON.
+     * Rows are read from a database cursor and detached once written, and the output
+     * is flushed periodically, so memory use stays constant regardless of table size.
+     * A slow client blocks the flush, which in turn stops further rows being read.
+     * Shards are exported one after another, each in message ID order.
+     *
+     * @param out the stream to write to; it is flushed but not closed
+     * @return the number of messages written
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public long exportMessages(OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (int shard = 0; shard < shards.count(); shard++) {
+                long written = count;
+                count = shards.on(shard, () -> exportShard(generator, written));
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the messages of the current shard for {@link #exportMessages(OutputStream)}.
+     *
+     * @param generator the generator to write to
+     * @param written the number of messages written so far
+     * @return the number of messages written so far, including this shard's
+     */
+    private long exportShard(JsonGenerator generator, long written) {
+        long count = written;
+        try (Stream<Message> messages = messageRepository.streamAll()) {
+            Iterator<Message> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                Message message = iterator.next();
+                generator.writeObject(message);
+                entityManager.detach(message);
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves one page of all messages, ordered by message ID.
+     * The page is located by seeking past the cursor, so its cost does not depend on
+     * how many messages precede it.
+     *
+     * @param after the message ID to resume after, or null to start from the beginning
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of messages, or null if the limit is outside 1..{@value #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public MessagePage getMessagePage(Integer after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return null;
+        }
+        List<List<Message>> perShard = shards.onEveryShard(() -> messageRepository.findByMessageIdGreaterThanOrderByMessageIdAsc(
+                after == null ? Integer.MIN_VALUE : after, PageRequest.of(0, size + 1)));
+        return toPage(merge(perShard, Comparator.comparing(Message::getMessageId), size + 1), size);
+    }
+
+    /**
+     * Retrieves one page of the messages posted in a time range, newest first by posting time and
+     * then message ID. The range and cursor bound a range scan of the (timePostedEpoch, messageId)
+     * index, read only as far as the page, so a recent window costs the same however much history
+     * precedes it. Messages without a posting time are not in any range.
+     *
+     * @param since the earliest posting time included, or null for no lower bound
+     * @param until the posting time the range ends before, or null for no upper bound
+     * @param before with {@code until}, also includes messages posted exactly at {@code until} with a
+     *               lower message ID; the next page passes the previous page's last message here
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of messages, or null if {@code since} is after {@code until}, {@code before}
+     *         is given without {@code until}, or the limit is outside 1..{@value #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public TimeRangePage getMessagesPostedBetween(Long since, Long until, Integer before, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (!isValidTimeRange(since, until, before, size)) {
+            return null;
+        }
+        List<List<Message>> perShard = shards.onEveryShard(() -> messageRepository.findPostedBetween(
+                since == null ? Long.MIN_VALUE : since, until == null ? Long.MAX_VALUE : until,
+                before == null ? Integer.MIN_VALUE : before, PageRequest.of(0, size + 1)));
+        return toTimeRangePage(merge(perShard, NEWEST_FIRST, size + 1), size);
     }
 
     /**
-     * Retrieves a message by its ID.
+     * Retrieves a message by its ID, from the {@value #MESSAGE_CACHE} cache if it holds the
+     * message at its current version.
      *
      * @param messageId the ID of the message to retrieve
      * @return the Message entity if found, otherwise null
      */
-    @Transactional
+    @Timed("app.service")
     public Message getMessageById(Integer messageId) {
-        List<Message> messages = messageRepository.findAll();
-        for (Message message : messages) {
-            if (Objects.equals(message.getMessageId(), messageId)) {
-                return message;
-            }
+        if (messageId == null) {
+            return null;
         }
-        return null;
+        return readThrough(MESSAGE_CACHE, messageId, messageVersions.messageVersion(messageId),
+                () -> findMessageById(messageId));
+    }
+
+    private Message findMessageById(Integer messageId) {
+        return shards.onShardOfId(messageId, () -> messageRepository.findById(messageId).orElse(null));
     }
 
     /**
      * Updates a message by its ID.
+     * The text is validated before the row is looked up, and the change is flushed
+     * through the persistence context rather than an explicit save.
      * The update will be successful if:
      * - The message ID exists.
      * - The new message text is not blank.
@@ -92,43 +416,268 @@ public class MessageService {
      * @return the updated Message entity if successful, otherwise null
      */
     @Transactional
+    @Timed("app.service")
     public Message updateMessageById(Integer messageId, String messageText) {
-        Message message = getMessageById(messageId);
-        if (message != null 
-        && messageText != null 
-        && !messageText.isBlank() && messageText.length() <= 255) {
-            message.setMessageText(messageText);
-            return messageRepository.save(message);
+        if (!isValidMessageText(messageText)) {
+            return null;
+        }
+        Message located = findMessageById(messageId);
+        if (located == null) {
+            return null;
+        }
+        // the same managed entity when there is one shard, otherwise read again in the shard's transaction
+        Message message = shards.onShardOf(located.getPostedBy(), () -> {
+            Message stored = messageRepository.findById(messageId).orElse(null);
+            if (stored != null) {
+                String previousText = stored.getMessageText();
+                stored.setMessageText(messageText);
+                tagService.replaceTags(stored, previousText);
+            }
+            return stored;
+        });
+        if (message != null) {
+            changedAfterCommit(List.of(message));
+            Transactions.afterCommit(() -> searchService.onMessageSaved(message));
         }
-        return null;
+        return message;
     }
 
     /**
-     * Retrieves all messages posted by a specific user.
+     * Retrieves all messages posted by a specific user, from the {@value #ACCOUNT_MESSAGES_CACHE}
+     * cache if it holds them at the user's current watermark.
      *
      * @param accountId the ID of the account whose messages to retrieve
      * @return a list of Message entities posted by the user, or an empty list if none exist
      */
-    @Transactional
+    @Timed("app.service")
     public List<Message> getMessagesByAccountId(Integer accountId) {
-        List<Message> messages = messageRepository.findByPostedBy(accountId);
-        return messages.isEmpty() ? new ArrayList<>() : messages;
+        if (accountId == null) {
+            return new ArrayList<>();
+        }
+        return readThrough(ACCOUNT_MESSAGES_CACHE, accountId, messageVersions.accountVersion(accountId), () -> {
+            List<Message> messages = shards.onShardOf(accountId, () -> messageRepository.findByPostedBy(accountId));
+            return messages.isEmpty() ? new ArrayList<>() : messages;
+        });
+    }
+
+    /**
+     * Retrieves one page of the messages posted by a specific user, ordered by message ID.
+     *
+     * @param accountId the ID of the account whose messages to retrieve
+     * @param after the message ID to resume after, or null to start from the beginning
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of messages, or null if the limit is outside 1..{@value #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public MessagePage getMessagePageByAccountId(Integer accountId, Integer after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return null;
+        }
+        List<Message> messages = shards.onShardOf(accountId, () ->
+                messageRepository.findByPostedByAndMessageIdGreaterThanOrderByMessageIdAsc(
+                        accountId, after == null ? Integer.MIN_VALUE : after, PageRequest.of(0, size + 1)));
+        return toPage(messages, size);
+    }
+
+    /**
+     * Retrieves one page of the messages a specific user posted in a time range, like
+     * {@link #getMessagesPostedBetween(Long, Long, Integer, Integer)}, served by the
+     * (postedBy, timePostedEpoch, messageId) index.
+     *
+     * @param accountId the ID of the account whose messages to retrieve
+     * @param since the earliest posting time included, or null for no lower bound
+     * @param until the posting time the range ends before, or null for no upper bound
+     * @param before with {@code until}, the message ID to continue below at {@code until}
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of messages, or null if the range, cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public TimeRangePage getMessagesPostedBetweenByAccountId(Integer accountId, Long since, Long until,
+                                                             Integer before, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (!isValidTimeRange(since, until, before, size)) {
+            return null;
+        }
+        List<Message> messages = shards.onShardOf(accountId, () -> messageRepository.findByPostedByPostedBetween(accountId,
+                since == null ? Long.MIN_VALUE : since, until == null ? Long.MAX_VALUE : until,
+                before == null ? Integer.MIN_VALUE : before, PageRequest.of(0, size + 1)));
+        return toTimeRangePage(messages, size);
     }
 
     /**
      * Deletes a message by its ID.
-     * The deletion will remove the message from the database if it exists.
+     * The deletion will remove the message from the database if it exists. The message is looked
+     * up once, then deleted by ID on its poster's shard, without loading it again there.
      *
      * @param messageId the ID of the message to delete
      * @return the deleted Message entity if it existed, otherwise null
      */
     @Transactional
+    @Timed("app.service")
     public Message deleteMessageById(Integer messageId) {
-        Message message = getMessageById(messageId);
-        if (message != null) {
-            messageRepository.deleteById(messageId);
-            return message;
+        Message message = findMessageById(messageId);
+        if (message == null) {
+            return null;
+        }
+        int deleted = shards.onShardOf(message.getPostedBy(), () -> messageRepository.deleteByMessageId(messageId));
+        if (deleted == 0) {
+            return null;
+        }
+        changedAfterCommit(List.of(message));
+        Transactions.afterCommit(() -> searchService.onMessageDeleted(message.getMessageId()));
+        return message;
+    }
+
+    /**
+     * Inserts new messages, which are all on the current shard, with their hashtags and mentions.
+     */
+    private List<Message> insert(List<Message> messages) {
+        messageRepository.saveAll(messages);
+        tagService.saveTags(messages);
+        return messages;
+    }
+
+    /**
+     * Passes a committed new message on to the followers' feeds and the search index.
+     */
+    private void onMessageCreated(Message message) {
+        feedService.onMessageCreated(message);
+        searchService.onMessageSaved(message);
+    }
+
+    /**
+     * Merges the sorted results of the shards into the first {@code limit} messages in the same order.
+     */
+    private static List<Message> merge(List<List<Message>> perShard, Comparator<Message> order, int limit) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<Message> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Builds a page from a query that fetched one row more than the page size,
+     * so the presence of a next page is known without a second query.
+     */
+    private MessagePage toPage(List<Message> messages, int size) {
+        if (messages.size() <= size) {
+            return new MessagePage(messages, null);
+        }
+        List<Message> page = new ArrayList<>(messages.subList(0, size));
+        return new MessagePage(page, page.get(size - 1).getMessageId());
+    }
+
+    /**
+     * Builds a time-range page from a query that fetched one row more than the page size; the
+     * cursor is the posting time and message ID of the page's last message.
+     */
+    static TimeRangePage toTimeRangePage(List<Message> messages, int size) {
+        if (messages.size() <= size) {
+            return new TimeRangePage(messages, null, null);
+        }
+        List<Message> page = new ArrayList<>(messages.subList(0, size));
+        Message last = page.get(size - 1);
+        return new TimeRangePage(page, last.getTimePostedEpoch(), last.getMessageId());
+    }
+
+    /**
+     * Checks the parameters of a time-range page: the range must not be reversed, a cursor
+     * needs the posting time it continues from, and the page size must be in range.
+     */
+    static boolean isValidTimeRange(Long since, Long until, Integer before, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return false;
+        }
+        if (before != null && until == null) {
+            return false;
+        }
+        return since == null || until == null || since <= until;
+    }
+
+    /**
+     * Checks the message text rules shared by creation and update:
+     * not blank and not over 255 characters.
+     */
+    private static boolean isValidMessageText(String messageText) {
+        return messageText != null && !messageText.isBlank() && messageText.length() <= 255;
+    }
+
+    /**
+     * Applies messages that the reactive API created, updated or deleted through R2DBC to the
+     * caches and ETag versions, as this service does for its own writes once they commit.
+     *
+     * @param messages the written messages, already committed
+     */
+    public void onMessagesWritten(Collection<Message> messages) {
+        changedAfterCommit(messages);
+    }
+
+    /**
+     * Once the current transaction commits, advances the versions of changed messages and their
+     * posters in {@link MessageVersions}, which retires their cached copies, and evicts those copies.
+     */
+    private void changedAfterCommit(Collection<Message> messages) {
+        Cache messageCache = cacheManager.getCache(MESSAGE_CACHE);
+        Cache accountCache = cacheManager.getCache(ACCOUNT_MESSAGES_CACHE);
+        Transactions.afterCommit(() -> {
+            messageVersions.onMessagesChanged(messages);
+            for (Message message : messages) {
+                if (messageCache != null && message.getMessageId() != null) {
+                    messageCache.evict(message.getMessageId());
+                }
+                if (accountCache != null && message.getPostedBy() != null) {
+                    accountCache.evict(message.getPostedBy());
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads through a cache whose entries carry the version of their key that was current before
+     * they were loaded, and ignores an entry of any other version. A reader that loaded a row
+     * before a change committed may still store it after the change evicted the key, but the
+     * change has advanced the version by then, so that copy is never served.
+     *
+     * @param cacheName the cache
+     * @param key the message or account ID
+     * @param version the key's current version, taken before loading
+     * @param loader loads the value in a read-only transaction on a miss
+     * @return the cached or loaded value
+     */
+    private <T> T readThrough(String cacheName, Integer key, long version, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Versioned cached = cache == null ? null : cache.get(key, Versioned.class);
+        if (cached != null && cached.version == version) {
+            // each cache only holds values of the type its loader returns
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.value;
+            return value;
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        T value = readOnly.execute(status -> loader.get());
+        if (cache != null && value != null) {
+            cache.put(key, new Versioned(version, value));
+        }
+        return value;
+    }
+
+    /**
+     * A cached value and the version it was loaded at.
+     */
+    private static final class Versioned {
+        final long version;
+        final Object value;
+
+        Versioned(long version, Object value) {
+            this.version = version;
+            this.value = value;
         }
-        return null;
     }
-}
\ No newline at end of file
+}
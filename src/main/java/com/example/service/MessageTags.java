@@ -0,0 +1,54 @@
+package com.example.service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extraction of hashtags and mentions from message text.
+ * A tag starts with {@code #} or {@code @} at the start of the text or after a character that
+ * cannot be part of a word, so "a#b" and "bob@example.com" contain none.
+ */
+final class MessageTags {
+
+    private static final Pattern HASHTAG = Pattern.compile("(?<![\\p{L}\\p{N}_])#([\\p{L}\\p{N}_]+)");
+    // dots and hyphens inside a username, but not a trailing full stop
+    private static final Pattern MENTION = Pattern.compile("(?<![\\p{L}\\p{N}_])@([\\p{L}\\p{N}_]+(?:[.-][\\p{L}\\p{N}_]+)*)");
+
+    private MessageTags() {
+    }
+
+    /**
+     * @param text the message text, may be null
+     * @return the distinct hashtags, lower-cased and without the {@code #}, in order of first use
+     */
+    static Set<String> hashtags(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null || text.indexOf('#') < 0) {
+            return tags;
+        }
+        Matcher matcher = HASHTAG.matcher(text);
+        while (matcher.find()) {
+            tags.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        return tags;
+    }
+
+    /**
+     * @param text the message text, may be null
+     * @return the distinct mentioned usernames as written, without the {@code @}, in order of first use
+     */
+    static Set<String> mentions(String text) {
+        Set<String> usernames = new LinkedHashSet<>();
+        if (text == null || text.indexOf('@') < 0) {
+            return usernames;
+        }
+        Matcher matcher = MENTION.matcher(text);
+        while (matcher.find()) {
+            usernames.add(matcher.group(1));
+        }
+        return usernames;
+    }
+}
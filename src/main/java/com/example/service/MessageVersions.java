@@ -0,0 +1,116 @@
+package com.example.service;
+
+import com.example.entity.Message;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strong ETags for message reads that need no query: a version per message and a "last modified"
+ * watermark per poster, both advanced by {@link MessageService} once a creation, update or
+ * deletion commits. Versions are drawn from one counter that starts at the boot time in
+ * microseconds, so they only grow, also across restarts.
+ * <p>
+ * Only messages and accounts written since startup are tracked; any other has the version the
+ * counter had at startup, meaning "unchanged since then". When more than
+ * {@code app.etags.max-tracked} entries are held, they are dropped and that base version is moved
+ * past every version handed out, which changes every ETag once instead of letting the maps grow.
+ * <p>
+ * {@link MessageService} caches each message and message list with the version read before
+ * loading it, and ignores cached copies of any other version. A response takes its ETag before
+ * loading its body, so a body is never older than its ETag. The versions also bind the caches when
+ * ETags are disabled. The
+ * versions are kept per instance, like the caches; with {@code app.etags.enabled=false} no ETags
+ * are sent. Each Accept header gets its own ETags, since it may select another wire format.
+ */
+@Component
+public class MessageVersions {
+
+    @Value("${app.etags.enabled:true}")
+    private boolean enabled;
+    @Value("${app.etags.max-tracked:1000000}")
+    private int maxTracked;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    private final Map<Integer, Long> messageVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> accountWatermarks = new ConcurrentHashMap<>();
+    private volatile long baseVersion = clock.get();
+
+    /**
+     * Returns the ETag of a message, whether or not it exists; it changes whenever the message is
+     * created, updated or deleted.
+     *
+     * @param messageId the message ID
+     * @param accept the request's Accept header, may be null
+     * @return the quoted ETag, or null if ETags are disabled
+     */
+    public String messageTag(Integer messageId, String accept) {
+        return enabled ? tag(messageVersion(messageId), accept) : null;
+    }
+
+    /**
+     * Returns the ETag of the messages of a poster; it changes whenever one of the poster's
+     * messages is created, updated or deleted.
+     *
+     * @param accountId the poster's account ID
+     * @param accept the request's Accept header, may be null
+     * @return the quoted ETag, or null if ETags are disabled
+     */
+    public String accountTag(Integer accountId, String accept) {
+        return enabled ? tag(accountVersion(accountId), accept) : null;
+    }
+
+    /**
+     * @param messageId the message ID
+     * @return the current version of the message
+     */
+    public long messageVersion(Integer messageId) {
+        Long version = messageVersions.get(messageId);
+        return version != null ? version : baseVersion;
+    }
+
+    /**
+     * @param accountId the poster's account ID
+     * @return the current watermark of the poster's messages
+     */
+    public long accountVersion(Integer accountId) {
+        Long version = accountWatermarks.get(accountId);
+        return version != null ? version : baseVersion;
+    }
+
+    /**
+     * Advances the versions of committed messages and the watermarks of their posters.
+     *
+     * @param messages the created, updated or deleted messages
+     */
+    public void onMessagesChanged(Collection<Message> messages) {
+        long version = clock.incrementAndGet();
+        for (Message message : messages) {
+            if (message.getMessageId() != null) {
+                messageVersions.put(message.getMessageId(), version);
+            }
+            if (message.getPostedBy() != null) {
+                accountWatermarks.put(message.getPostedBy(), version);
+            }
+        }
+        if (messageVersions.size() + accountWatermarks.size() > maxTracked) {
+            baseVersion = clock.incrementAndGet();
+            messageVersions.clear();
+            accountWatermarks.clear();
+        }
+    }
+
+    private static String tag(long version, String accept) {
+        String tag = Long.toString(version, 36);
+        if (accept != null) {
+            tag += "-" + Integer.toUnsignedString(accept.hashCode(), 36);
+        }
+        return "\"" + tag + "\"";
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256.
+ * Hashes are stored as {@code $pbkdf2-sha256$<iterations>$<salt>$<hash>} with a random 16-byte
+ * salt, so the cost can be raised later without invalidating existing hashes.
+ * Rows stored before hashing was introduced hold the plain password; they still verify, and
+ * {@link #needsRehash(String)} reports them, and hashes of another cost, for migration on login.
+ * <p>
+ * The asynchronous methods run on a dedicated pool of {@code app.passwords.threads} threads
+ * (default: one per core) with a bounded queue of {@code app.passwords.queue-capacity} tasks, so
+ * hashing cannot occupy the web server's request threads. When the queue is full the returned
+ * future fails with a {@link RejectedExecutionException}.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(@Value("${app.passwords.iterations:600000}") int iterations,
+                          @Value("${app.passwords.threads:0}") int threads,
+                          @Value("${app.passwords.queue-capacity:1000}") int queueCapacity) {
+        this.iterations = iterations;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Hashes a password with a new random salt and the configured number of iterations.
+     *
+     * @param password the plain password
+     * @return the encoded hash
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Checks a password against a stored value, in time independent of where they differ.
+     *
+     * @param password the plain password to check
+     * @param stored an encoded hash, or a plain password stored before hashing was introduced
+     * @return true if the password matches; false if the stored hash is malformed
+     */
+    public boolean matches(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        int cost;
+        byte[] salt;
+        byte[] expected;
+        try {
+            cost = Integer.parseInt(parts[0]);
+            Base64.Decoder base64 = Base64.getDecoder();
+            salt = base64.decode(parts[1]);
+            expected = base64.decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            // A malformed hash matches no password, like an unknown account
+            return false;
+        }
+        if (cost < 1 || salt.length == 0 || expected.length == 0) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, pbkdf2(password, salt, cost));
+    }
+
+    /**
+     * @param stored a stored password value
+     * @return true if it is a plain password or was hashed with a different number of iterations
+     */
+    public boolean needsRehash(String stored) {
+        return stored == null || !stored.startsWith(PREFIX + iterations + "$");
+    }
+
+    /**
+     * Runs {@link #hash(String)} on the hashing pool.
+     *
+     * @param password the plain password
+     * @return the encoded hash, or a failed future if the pool's queue is full
+     */
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> hash(password));
+    }
+
+    /**
+     * Runs {@link #matches(String, String)} on the hashing pool.
+     *
+     * @param password the plain password to check
+     * @param stored the stored value
+     * @return whether the password matches, or a failed future if the pool's queue is full
+     */
+    public CompletableFuture<Boolean> matchesAsync(String password, String stored) {
+        return submit(() -> matches(password, stored));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.service;
+
+import com.example.entity.Account;
+import com.example.exception.DuplicateUsernameException;
+import com.example.repository.ReactiveAccountRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AccountService} for the reactive API, backed by R2DBC.
+ * Validation rules are the same as in {@link AccountService}; where that service returns null,
+ * these methods complete empty. Usernames are looked up in the database directly, without the
+ * username cache and filter. Passwords are hashed and verified on the {@link PasswordHasher} pool,
+ * and plain or outdated hashes are replaced on login, as in {@link AccountService}.
+ */
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactiveAccountService {
+
+    @Autowired
+    private ReactiveAccountRepository accountRepository;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private KnownAccountIds knownAccountIds;
+
+    /**
+     * Registers a new account if the username is not blank and the password is at least 4 characters long.
+     *
+     * @param account the account to register
+     * @return the registered account, empty if it is invalid, or a {@link DuplicateUsernameException}
+     *         error if the username already exists. Fails with a
+     *         {@link java.util.concurrent.RejectedExecutionException} if the hashing pool is full.
+     */
+    public Mono<Account> registerAccount(Account account) {
+        if (account.getUsername() == null
+                || account.getUsername().isBlank()
+                || account.getPassword() == null
+                || account.getPassword().length() < 4) {
+            return Mono.empty();
+        }
+        return accountRepository.findByUsername(account.getUsername())
+                .flatMap(existing -> Mono.<Account>error(new DuplicateUsernameException("Username already exists")))
+                .switchIfEmpty(Mono.defer(() -> Mono.fromFuture(passwordHasher.hashAsync(account.getPassword()))
+                        .flatMap(hash -> accountRepository.insert(new Account(account.getUsername(), hash)))
+                        .doOnNext(saved -> knownAccountIds.add(saved.getAccountId()))
+                        .map(saved -> withPassword(saved, account.getPassword()))))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new DuplicateUsernameException("Username already exists"));
+    }
+
+    /**
+     * Authenticates a user.
+     *
+     * @param login the account credentials
+     * @return the account if the username and password match, otherwise empty. Fails with a
+     *         {@link java.util.concurrent.RejectedExecutionException} if the hashing pool is full.
+     */
+    public Mono<Account> login(Account login) {
+        if (login.getUsername() == null || login.getPassword() == null) {
+            return Mono.empty();
+        }
+        return accountRepository.findByUsername(login.getUsername())
+                .filterWhen(account -> Mono.fromFuture(passwordHasher.matchesAsync(login.getPassword(), account.getPassword())))
+                .flatMap(account -> rehashIfNeeded(account, login.getPassword())
+                        .thenReturn(withPassword(account, login.getPassword())));
+    }
+
+    /**
+     * Replaces a plain or outdated stored password with a hash at the current cost.
+     */
+    private Mono<Long> rehashIfNeeded(Account account, String password) {
+        if (!passwordHasher.needsRehash(account.getPassword())) {
+            return Mono.empty();
+        }
+        return Mono.fromFuture(passwordHasher.hashAsync(password))
+                .flatMap(hash -> accountRepository.updatePassword(account.getAccountId(), hash));
+    }
+
+    /**
+     * Copies an account with the given password in place of the stored one.
+     */
+    private static Account withPassword(Account account, String password) {
+        return new Account(account.getAccountId(), account.getUsername(), password);
+    }
+}
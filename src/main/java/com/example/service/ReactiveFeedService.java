@@ -0,0 +1,56 @@
+package com.example.service;
+
+import com.example.dto.TimeRangePage;
+import com.example.entity.Follow;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive facade over {@link FeedService} for the reactive API. Feeds are materialized in memory
+ * and shared with the rest of the application, so the blocking service is reused and each call
+ * runs on the bounded elastic scheduler instead of an event loop thread.
+ */
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactiveFeedService {
+
+    @Autowired
+    private FeedService feedService;
+
+    /**
+     * @return the follow relationship, or empty if either account does not exist or both are the same
+     */
+    public Mono<Follow> follow(Integer followerId, Integer followeeId) {
+        return blocking(() -> feedService.follow(followerId, followeeId));
+    }
+
+    /**
+     * @return the removed relationship, or empty if it did not exist
+     */
+    public Mono<Follow> unfollow(Integer followerId, Integer followeeId) {
+        return blocking(() -> feedService.unfollow(followerId, followeeId));
+    }
+
+    /**
+     * @return one page of the user's feed, or empty if the limit or cursor is invalid
+     */
+    public Mono<TimeRangePage> getFeed(Integer accountId, Long until, Integer before, Integer limit) {
+        return blocking(() -> feedService.getFeed(accountId, until, before, limit));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
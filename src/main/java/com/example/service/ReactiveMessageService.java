@@ -0,0 +1,291 @@
+package com.example.service;
+
+import com.example.dto.MessageBatchResult;
+import com.example.dto.MessagePage;
+import com.example.dto.SearchPage;
+import com.example.dto.TimeRangePage;
+import com.example.entity.Message;
+import com.example.repository.ReactiveAccountRepository;
+import com.example.repository.ReactiveMessageRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+import static com.example.service.MessageService.DEFAULT_PAGE_SIZE;
+import static com.example.service.MessageService.MAX_PAGE_SIZE;
+
+/**
+ * Non-blocking counterpart of {@link MessageService} for the reactive API, backed by R2DBC.
+ * Validation rules are the same as in {@link MessageService}; where that service returns null,
+ * these methods complete empty. Message reads are not cached, but every write is applied to the
+ * caches and ETag versions of {@link MessageService}, which the JPA paths still read.
+ * Batch creation and feed fan-out reuse the blocking JPA services on the bounded elastic scheduler,
+ * so batches keep their JDBC batching and feeds stay shared with the rest of the application.
+ * Created, updated and deleted messages are applied to the shared {@link SearchService} index.
+ * Hashtags and mentions are stored by the JPA-based {@link TagService} on the bounded elastic
+ * scheduler, in their own transaction after the message is written.
+ */
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactiveMessageService {
+
+    @Autowired
+    private ReactiveMessageRepository messageRepository;
+    @Autowired
+    private ReactiveAccountRepository accountRepository;
+    @Autowired
+    private MessageService messageService;
+    @Autowired
+    private KnownAccountIds knownAccountIds;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private TagService tagService;
+
+    /**
+     * Creates a new message if its text is valid and its `postedBy` refers to an existing user,
+     * then pushes it into the followers' feeds. As in {@link MessageService#createMessage(Message, Integer)},
+     * a given `userId` must equal the `postedBy` and is used when `postedBy` is empty, and only
+     * posters missing from {@link KnownAccountIds} are looked up.
+     *
+     * @param message the message to create
+     * @param userId the ID of the account posting the message, may be null
+     * @return the created message, or empty if it is invalid
+     */
+    public Mono<Message> createMessage(Message message, Integer userId) {
+        Integer postedBy = message.getPostedBy() != null ? message.getPostedBy() : userId;
+        if (!isValidMessageText(message.getMessageText()) || postedBy == null
+                || (userId != null && !userId.equals(postedBy))) {
+            return Mono.empty();
+        }
+        message.setPostedBy(postedBy);
+        Mono<Boolean> exists = knownAccountIds.contains(postedBy)
+                ? Mono.just(Boolean.TRUE)
+                : accountRepository.existsById(postedBy);
+        return exists
+                .filter(Boolean::booleanValue)
+                .doOnNext(found -> knownAccountIds.add(postedBy))
+                .flatMap(found -> messageRepository.insert(message))
+                .doOnNext(this::onMessageWritten)
+                .flatMap(saved -> Mono.fromRunnable(() -> {
+                            tagService.saveTags(List.of(saved));
+                            feedService.onMessageCreated(saved);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(saved));
+    }
+
+    /**
+     * Creates a new message for an authenticated account, without looking the account up, as
+     * {@link MessageService#createMessageAs(Message, int)} does.
+     *
+     * @param message the message to create; an empty `postedBy` is set to the account
+     * @param accountId the authenticated account
+     * @return the created message, or empty if it is invalid or posted for another account
+     */
+    public Mono<Message> createMessageAs(Message message, int accountId) {
+        if (!isValidMessageText(message.getMessageText())) {
+            return Mono.empty();
+        }
+        if (message.getPostedBy() == null) {
+            message.setPostedBy(accountId);
+        } else if (message.getPostedBy() != accountId) {
+            return Mono.empty();
+        }
+        return messageRepository.insert(message)
+                .doOnNext(this::onMessageWritten)
+                .flatMap(saved -> Mono.fromRunnable(() -> {
+                            tagService.saveTags(List.of(saved));
+                            feedService.onMessageCreated(saved);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(saved));
+    }
+
+    /**
+     * Creates several messages with {@link MessageService#createMessages(List)}.
+     *
+     * @param messages the messages to create
+     * @return one result per item in request order, or empty if the batch is empty or too large
+     */
+    public Mono<List<MessageBatchResult>> createMessages(List<Message> messages) {
+        return Mono.fromCallable(() -> messageService.createMessages(messages))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Streams every message in message ID order.
+     */
+    public Flux<Message> getAllMessages() {
+        return messageRepository.findAll();
+    }
+
+    /**
+     * Retrieves one keyset page of all messages, like {@link MessageService#getMessagePage(Integer, Integer)}.
+     *
+     * @return the page, or empty if the limit is outside 1..{@value MessageService#MAX_PAGE_SIZE}
+     */
+    public Mono<MessagePage> getMessagePage(Integer after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.empty();
+        }
+        return messageRepository.findByMessageIdGreaterThan(after == null ? Integer.MIN_VALUE : after, size + 1)
+                .collectList()
+                .map(messages -> toPage(messages, size));
+    }
+
+    /**
+     * Retrieves one time-range page of all messages, like
+     * {@link MessageService#getMessagesPostedBetween(Long, Long, Integer, Integer)}.
+     *
+     * @return the page, or empty if the range, cursor or limit is invalid
+     */
+    public Mono<TimeRangePage> getMessagesPostedBetween(Long since, Long until, Integer before, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (!MessageService.isValidTimeRange(since, until, before, size)) {
+            return Mono.empty();
+        }
+        return messageRepository.findPostedBetween(since == null ? Long.MIN_VALUE : since,
+                        until == null ? Long.MAX_VALUE : until, before == null ? Integer.MIN_VALUE : before, size + 1)
+                .collectList()
+                .map(messages -> MessageService.toTimeRangePage(messages, size));
+    }
+
+    /**
+     * Searches message text with {@link SearchService#search(String, Integer, Integer)}, which
+     * reads the page of messages through JPA on the bounded elastic scheduler.
+     *
+     * @return the page of matching messages, or empty if the query, offset or limit is invalid
+     */
+    public Mono<SearchPage> searchMessages(String query, Integer offset, Integer limit) {
+        return Mono.fromCallable(() -> searchService.search(query, offset, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * @return the message, or empty if not found
+     */
+    public Mono<Message> getMessageById(Integer messageId) {
+        if (messageId == null) {
+            return Mono.empty();
+        }
+        return messageRepository.findById(messageId);
+    }
+
+    /**
+     * Updates the text of a message if the new text is valid and the message exists.
+     *
+     * @return the updated message, or empty if the update failed
+     */
+    public Mono<Message> updateMessageById(Integer messageId, String messageText) {
+        if (messageId == null || !isValidMessageText(messageText)) {
+            return Mono.empty();
+        }
+        return messageRepository.updateMessageText(messageId, messageText)
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> messageRepository.findById(messageId))
+                .doOnNext(this::onMessageWritten)
+                .flatMap(message -> Mono.fromRunnable(() -> tagService.replaceTags(message, null))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(message));
+    }
+
+    /**
+     * Streams the messages posted by a user in message ID order.
+     */
+    public Flux<Message> getMessagesByAccountId(Integer accountId) {
+        if (accountId == null) {
+            return Flux.empty();
+        }
+        return messageRepository.findByPostedBy(accountId);
+    }
+
+    /**
+     * Retrieves one keyset page of a user's messages, like
+     * {@link MessageService#getMessagePageByAccountId(Integer, Integer, Integer)}.
+     *
+     * @return the page, or empty if the limit is outside 1..{@value MessageService#MAX_PAGE_SIZE}
+     */
+    public Mono<MessagePage> getMessagePageByAccountId(Integer accountId, Integer after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (accountId == null || size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.empty();
+        }
+        return messageRepository.findByPostedByAndMessageIdGreaterThan(accountId, after == null ? Integer.MIN_VALUE : after, size + 1)
+                .collectList()
+                .map(messages -> toPage(messages, size));
+    }
+
+    /**
+     * Retrieves one time-range page of a user's messages, like
+     * {@link MessageService#getMessagesPostedBetweenByAccountId(Integer, Long, Long, Integer, Integer)}.
+     *
+     * @return the page, or empty if the range, cursor or limit is invalid
+     */
+    public Mono<TimeRangePage> getMessagesPostedBetweenByAccountId(Integer accountId, Long since, Long until,
+                                                                   Integer before, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (accountId == null || !MessageService.isValidTimeRange(since, until, before, size)) {
+            return Mono.empty();
+        }
+        return messageRepository.findByPostedByPostedBetween(accountId, since == null ? Long.MIN_VALUE : since,
+                        until == null ? Long.MAX_VALUE : until, before == null ? Integer.MIN_VALUE : before, size + 1)
+                .collectList()
+                .map(messages -> MessageService.toTimeRangePage(messages, size));
+    }
+
+    /**
+     * Deletes a message.
+     *
+     * @return the deleted message, or empty if it did not exist
+     */
+    public Mono<Message> deleteMessageById(Integer messageId) {
+        if (messageId == null) {
+            return Mono.empty();
+        }
+        return messageRepository.findById(messageId)
+                .flatMap(message -> messageRepository.deleteById(messageId)
+                        .filter(deleted -> deleted > 0)
+                        .thenReturn(message))
+                .doOnNext(deleted -> {
+                    messageService.onMessagesWritten(List.of(deleted));
+                    searchService.onMessageDeleted(messageId);
+                });
+    }
+
+    /**
+     * Applies a created or updated message to the caches, ETag versions and search index shared
+     * with {@link MessageService}.
+     */
+    private void onMessageWritten(Message message) {
+        messageService.onMessagesWritten(List.of(message));
+        searchService.onMessageSaved(message);
+    }
+
+    private static MessagePage toPage(List<Message> messages, int size) {
+        if (messages.size() <= size) {
+            return new MessagePage(messages, null);
+        }
+        List<Message> page = messages.subList(0, size);
+        return new MessagePage(page, page.get(size - 1).getMessageId());
+    }
+
+    private static boolean isValidMessageText(String messageText) {
+        return messageText != null && !messageText.isBlank() && messageText.length() <= 255;
+    }
+}
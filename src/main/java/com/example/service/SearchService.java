@@ -0,0 +1,153 @@
+package com.example.service;
+
+import com.example.dto.SearchPage;
+import com.example.entity.Message;
+import com.example.repository.MessageRepository;
+import com.example.sharding.MessageShards;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.example.service.MessageService.DEFAULT_PAGE_SIZE;
+import static com.example.service.MessageService.MAX_PAGE_SIZE;
+
+/**
+ * Full-text search over message text, answered from an in-memory {@link MessageSearchIndex}.
+ * The index is built from every stored message at startup and then kept current by the message
+ * services, which report each created, updated or deleted message once its transaction has
+ * committed. It therefore assumes messages are only changed through those services. A search
+ * reads only the messages of the requested page from the database.
+ */
+@Service
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchService {
+
+    /**
+     * Largest offset plus limit a search may request; ranking keeps this many matches in memory.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MessageShards shards;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final MessageSearchIndex index = new MessageSearchIndex();
+
+    /**
+     * Indexes every stored message before the application starts serving requests.
+     * Rows are read from a database cursor and detached once indexed, so only the index grows
+     * with the table.
+     */
+    @PostConstruct
+    public void buildIndex() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                shards.on(shard, () -> {
+                    try (Stream<Message> messages = messageRepository.streamAll()) {
+                        messages.forEach(message -> {
+                            index.add(message.getMessageId(), message.getMessageText());
+                            entityManager.detach(message);
+                        });
+                    }
+                    return null;
+                });
+            }
+        });
+    }
+
+    /**
+     * Finds the messages containing every term and every double-quoted phrase of a query,
+     * case-insensitively, ranked by relevance (BM25).
+     *
+     * @param query the search terms and phrases
+     * @param offset the number of best matches to skip, or null for none
+     * @param limit the maximum number of messages to return, or null for the default page size
+     * @return the page of matching messages, or null if the query is blank, the limit is outside
+     *         1..{@value MessageService#MAX_PAGE_SIZE}, the offset is negative, or the page ends
+     *         beyond the first {@value #MAX_RESULT_WINDOW} matches
+     */
+    @Transactional(readOnly = true)
+    @Timed("app.service")
+    public SearchPage search(String query, Integer offset, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        int from = offset == null ? 0 : offset;
+        if (query == null || query.isBlank() || size < 1 || size > MAX_PAGE_SIZE
+                || from < 0 || from > MAX_RESULT_WINDOW - size) {
+            return null;
+        }
+        MessageSearchIndex.Hits hits = index.search(query, from, size);
+        int end = from + size;
+        Integer nextOffset = end < hits.getTotal() && end < MAX_RESULT_WINDOW ? end : null;
+        return new SearchPage(load(hits.getMessageIds()), hits.getTotal(), nextOffset);
+    }
+
+    /**
+     * Indexes a message that was created or whose text was updated.
+     *
+     * @param message the saved message
+     */
+    public void onMessageSaved(Message message) {
+        index.add(message.getMessageId(), message.getMessageText());
+    }
+
+    /**
+     * Removes a deleted message from the index.
+     *
+     * @param messageId the ID of the deleted message
+     */
+    public void onMessageDeleted(int messageId) {
+        index.remove(messageId);
+    }
+
+    /**
+     * Reads messages with one query per shard and returns them in the given order. Messages deleted
+     * since they were found are left out.
+     */
+    private List<Message> load(int[] messageIds) {
+        if (messageIds.length == 0) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = new ArrayList<>(messageIds.length);
+        for (int messageId : messageIds) {
+            ids.add(messageId);
+        }
+        Map<Integer, Message> byId = new HashMap<>();
+        for (List<Message> found : shards.onEveryShard(() -> messageRepository.findAllById(ids))) {
+            for (Message message : found) {
+                byId.put(message.getMessageId(), message);
+            }
+        }
+        List<Message> messages = new ArrayList<>(messageIds.length);
+        for (Integer id : ids) {
+            Message message = byId.get(id);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+}
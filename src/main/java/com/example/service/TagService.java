@@ -0,0 +1,180 @@
+package com.example.service;
+
+import com.example.dto.TrendingTopic;
+import com.example.entity.Message;
+import com.example.entity.MessageHashtag;
+import com.example.entity.MessageMention;
+import com.example.repository.MessageHashtagRepository;
+import com.example.repository.MessageMentionRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores the hashtags and mentions of messages and keeps the trending counters.
+ * Tags are extracted when a message is created or its text is updated and stored in the
+ * message_hashtag and message_mention tables in the same transaction; the database removes them
+ * with the message. Messages without {@code #} or {@code @} cost no statements.
+ * <p>
+ * Each committed use of a tag is also counted in a {@link TrendingCounter} (one for hashtags,
+ * one for mentions) over a sliding window of {@code app.trending.buckets} buckets of
+ * {@code app.trending.bucket-length}, so trending topics are read from memory rather than
+ * aggregated from the tables. The counters start empty when the application starts.
+ */
+@Service
+@AllArgsConstructor
+@NoArgsConstructor
+public class TagService {
+
+    /**
+     * Trending type of hashtags.
+     */
+    public static final String HASHTAGS = "hashtags";
+    /**
+     * Trending type of mentioned usernames.
+     */
+    public static final String MENTIONS = "mentions";
+    /**
+     * Number of trending topics returned when a request does not specify a limit.
+     */
+    public static final int DEFAULT_TRENDING_LIMIT = 10;
+
+    @Autowired
+    private MessageHashtagRepository hashtagRepository;
+    @Autowired
+    private MessageMentionRepository mentionRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.trending.bucket-length:1m}")
+    private Duration bucketLength;
+    @Value("${app.trending.buckets:60}")
+    private int bucketCount;
+    @Value("${app.trending.sketch-width:4096}")
+    private int sketchWidth;
+    @Value("${app.trending.sketch-depth:4}")
+    private int sketchDepth;
+    @Value("${app.trending.top-k:100}")
+    private int topK;
+
+    private TrendingCounter trendingHashtags;
+    private TrendingCounter trendingMentions;
+
+    @PostConstruct
+    public void createCounters() {
+        trendingHashtags = new TrendingCounter(bucketLength, bucketCount, sketchWidth, sketchDepth, topK, System::currentTimeMillis);
+        trendingMentions = new TrendingCounter(bucketLength, bucketCount, sketchWidth, sketchDepth, topK, System::currentTimeMillis);
+    }
+
+    /**
+     * Stores the hashtags and mentions of new messages, and counts them as trending once the
+     * transaction commits.
+     *
+     * @param messages the saved messages
+     */
+    @Transactional
+    public void saveTags(Collection<Message> messages) {
+        List<String> hashtags = new ArrayList<>();
+        List<String> mentions = new ArrayList<>();
+        for (Message message : messages) {
+            for (String tag : MessageTags.hashtags(message.getMessageText())) {
+                entityManager.persist(new MessageHashtag(message.getMessageId(), tag));
+                hashtags.add(tag);
+            }
+            for (String username : MessageTags.mentions(message.getMessageText())) {
+                entityManager.persist(new MessageMention(message.getMessageId(), username));
+                mentions.add(username);
+            }
+        }
+        countAfterCommit(hashtags, mentions);
+    }
+
+    /**
+     * Replaces the stored hashtags and mentions of a message whose text was updated. Only tags the
+     * previous text did not have are counted as trending, so editing a message does not count its
+     * tags twice.
+     *
+     * @param message the updated message
+     * @param previousText the text before the update, or null to read the previous tags from the tables
+     */
+    @Transactional
+    public void replaceTags(Message message, String previousText) {
+        Integer messageId = message.getMessageId();
+        Set<String> hashtags = MessageTags.hashtags(message.getMessageText());
+        Set<String> mentions = MessageTags.mentions(message.getMessageText());
+        Set<String> previousHashtags = previousText != null
+                ? MessageTags.hashtags(previousText)
+                : new HashSet<>(hashtagRepository.findTagsByMessageId(messageId));
+        Set<String> previousMentions = previousText != null
+                ? MessageTags.mentions(previousText)
+                : new HashSet<>(mentionRepository.findUsernamesByMessageId(messageId));
+
+        if (!hashtags.equals(previousHashtags)) {
+            if (!previousHashtags.isEmpty()) {
+                hashtagRepository.deleteByMessageId(messageId);
+            }
+            hashtags.forEach(tag -> entityManager.persist(new MessageHashtag(messageId, tag)));
+        }
+        if (!mentions.equals(previousMentions)) {
+            if (!previousMentions.isEmpty()) {
+                mentionRepository.deleteByMessageId(messageId);
+            }
+            mentions.forEach(username -> entityManager.persist(new MessageMention(messageId, username)));
+        }
+        List<String> addedHashtags = new ArrayList<>(hashtags);
+        addedHashtags.removeAll(previousHashtags);
+        List<String> addedMentions = new ArrayList<>(mentions);
+        addedMentions.removeAll(previousMentions);
+        countAfterCommit(addedHashtags, addedMentions);
+    }
+
+    /**
+     * Returns the hashtags or mentioned usernames used most in the trending window, most used first.
+     * Counts are estimates that may slightly exceed the true number of uses.
+     *
+     * @param type {@value #HASHTAGS} or {@value #MENTIONS}; null means hashtags
+     * @param limit the maximum number of topics, or null for {@value #DEFAULT_TRENDING_LIMIT}
+     * @return the trending topics, or null if the type is unknown or the limit is outside 1..app.trending.top-k
+     */
+    @Timed("app.service")
+    public List<TrendingTopic> getTrending(String type, Integer limit) {
+        int size = limit == null ? DEFAULT_TRENDING_LIMIT : limit;
+        if (size < 1 || size > topK) {
+            return null;
+        }
+        if (type == null || HASHTAGS.equals(type)) {
+            return trendingHashtags.top(size);
+        }
+        if (MENTIONS.equals(type)) {
+            return trendingMentions.top(size);
+        }
+        return null;
+    }
+
+    private void countAfterCommit(List<String> hashtags, List<String> mentions) {
+        if (!hashtags.isEmpty() || !mentions.isEmpty()) {
+            Transactions.afterCommit(() -> {
+                hashtags.forEach(trendingHashtags::add);
+                mentions.forEach(trendingMentions::add);
+            });
+        }
+    }
+}
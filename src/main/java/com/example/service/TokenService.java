@@ -0,0 +1,193 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues and verifies signed session tokens.
+ * A token is {@code <accountId>.<expiresAtEpochSecond>.<tokenId>.<signature>}, where the signature
+ * is an HMAC-SHA256 of the first three fields. Tokens are verified from their own contents, so
+ * authenticating a request needs no database read. Logged-out tokens are kept in a revocation
+ * cache, each until its own expiry. The cache holds at most {@code app.tokens.max-revoked} tokens;
+ * when it is full and one is evicted early, every token expiring no later than the evicted one is
+ * rejected from then on, so an eviction logs out more sessions than asked but never revives one.
+ * The signing key is {@code app.tokens.secret} (Base64); if it is blank a random key is generated
+ * at startup, and tokens then stop working when the application restarts.
+ */
+@Service
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenService {
+
+    /**
+     * Prefix of the Authorization header value that carries a token.
+     */
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int TOKEN_ID_BYTES = 12;
+
+    @Value("${app.tokens.secret:}")
+    private String secret;
+    @Value("${app.tokens.ttl:1h}")
+    private Duration ttl;
+    @Value("${app.tokens.max-revoked:100000}")
+    private long maxRevoked;
+
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+    private Cache<String, Long> revoked;
+    private final AtomicLong evictedUntil = new AtomicLong();
+    private final SecureRandom random = new SecureRandom();
+
+    @PostConstruct
+    public void createKey() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+        macs = ThreadLocal.withInitial(this::newMac);
+        revoked = Caffeine.newBuilder()
+                .maximumSize(maxRevoked)
+                .expireAfter(new UntilTokenExpiry())
+                .evictionListener((String tokenId, Long expiresAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictedUntil.accumulateAndGet(expiresAt, Math::max);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Issues a token for an account that expires after the configured time to live.
+     *
+     * @param accountId the authenticated account
+     * @return the signed token
+     */
+    public String issue(int accountId) {
+        byte[] tokenId = new byte[TOKEN_ID_BYTES];
+        random.nextBytes(tokenId);
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        String payload = accountId + "." + expiresAt + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(tokenId);
+        return payload + "." + sign(payload);
+    }
+
+    /**
+     * Verifies a token: its signature, its expiry and that it has not been revoked.
+     *
+     * @param token the token, or an Authorization header value starting with "Bearer "
+     * @return the account the token was issued to, or null if the token is not valid
+     */
+    public Integer authenticate(String token) {
+        String[] parts = split(token);
+        if (parts == null || Long.parseLong(parts[1]) <= evictedUntil.get()
+                || revoked.getIfPresent(parts[2]) != null) {
+            return null;
+        }
+        return Integer.valueOf(parts[0]);
+    }
+
+    /**
+     * Revokes a valid token, so that it is rejected for the rest of its lifetime.
+     *
+     * @param token the token, or an Authorization header value starting with "Bearer "
+     * @return the account the token was issued to, or null if the token was not valid
+     */
+    public Integer revoke(String token) {
+        Integer accountId = authenticate(token);
+        if (accountId != null) {
+            String[] parts = split(token);
+            revoked.put(parts[2], Long.valueOf(parts[1]));
+        }
+        return accountId;
+    }
+
+    /**
+     * Checks the format, signature and expiry of a token.
+     *
+     * @return the account ID, expiry and token ID fields, or null if the token is not valid
+     */
+    private String[] split(String token) {
+        if (token == null) {
+            return null;
+        }
+        if (token.startsWith(BEARER_PREFIX)) {
+            token = token.substring(BEARER_PREFIX.length());
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] signature = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(payload).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        String[] parts = payload.split("\\.");
+        if (parts.length != 3 || Long.parseLong(parts[1]) <= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        return parts;
+    }
+
+    /**
+     * Expires a revocation, whose value is the token's expiry in epoch seconds, when the token
+     * itself expires.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String tokenId, Long expiresAt, long currentTime) {
+            long remainingMillis = TimeUnit.SECONDS.toMillis(expiresAt) - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenId, Long expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenId, Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private String sign(String payload) {
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.service;
+
+import com.example.dto.TrendingTopic;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate counts of topics over a sliding time window, and the topics counted most often.
+ * The window is a ring of time buckets. Each bucket counts topics in a count-min sketch, whose
+ * estimates may exceed the true count by a small fraction of the bucket's total but never fall
+ * short of it, and keeps its heaviest topics as candidates for {@link #top(int)}.
+ * <p>
+ * Counting is lock-free: sketch counters are atomic, a bucket is replaced by compare-and-set when
+ * its time slot comes round again, and a topic only touches the candidate map when it is, or
+ * could become, one of the bucket's heaviest. A top query reads at most {@code topK} candidates
+ * per bucket, so its cost does not depend on how many topics or uses were counted.
+ */
+public class TrendingCounter {
+
+    private final long bucketMillis;
+    private final int width;
+    private final int depth;
+    private final int topK;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * Creates an empty counter.
+     * @param bucketLength the time covered by one bucket
+     * @param bucketCount the number of buckets in the window
+     * @param width the number of counters in each row of a bucket's sketch
+     * @param depth the number of rows of a bucket's sketch
+     * @param topK the number of candidate topics kept per bucket
+     * @param clock the current time in milliseconds
+     */
+    public TrendingCounter(Duration bucketLength, int bucketCount, int width, int depth, int topK, LongSupplier clock) {
+        this.bucketMillis = Math.max(1, bucketLength.toMillis());
+        this.width = width;
+        this.depth = depth;
+        this.topK = topK;
+        this.clock = clock;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * Counts one use of a topic at the current time.
+     * @param topic the topic
+     */
+    public void add(String topic) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        Bucket bucket = bucketFor(epoch);
+        if (bucket != null) {
+            bucket.add(topic);
+        }
+    }
+
+    /**
+     * Returns the topics counted most often in the window, most used first; ties are ordered by topic.
+     * @param limit the maximum number of topics to return, at most the configured top-K
+     * @return the topics with their estimated counts in the window
+     */
+    public List<TrendingTopic> top(int limit) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        List<Bucket> window = new ArrayList<>(buckets.length());
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch <= epoch && bucket.epoch > epoch - buckets.length()) {
+                window.add(bucket);
+                candidates.addAll(bucket.candidates.keySet());
+            }
+        }
+        List<TrendingTopic> topics = new ArrayList<>(candidates.size());
+        for (String topic : candidates) {
+            long count = 0;
+            for (Bucket bucket : window) {
+                count += bucket.estimate(topic);
+            }
+            topics.add(new TrendingTopic(topic, count));
+        }
+        topics.sort(Comparator.comparingLong(TrendingTopic::getCount).reversed().thenComparing(TrendingTopic::getTopic));
+        return topics.size() > limit ? new ArrayList<>(topics.subList(0, limit)) : topics;
+    }
+
+    /**
+     * Finds the bucket of a time slot, replacing the bucket of an expired slot that shared its
+     * place in the ring.
+     * @return the bucket, or null if the slot has already been replaced by a later one
+     */
+    private Bucket bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket current = buckets.get(slot);
+            if (current != null && current.epoch == epoch) {
+                return current;
+            }
+            if (current != null && current.epoch > epoch) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * The counts of one time slot.
+     */
+    private final class Bucket {
+        final long epoch;
+        final AtomicLongArray counters = new AtomicLongArray(width * depth);
+        // heaviest topics seen in this slot, with their estimate when last counted
+        final Map<String, Long> candidates = new ConcurrentHashMap<>();
+        // the smallest candidate estimate seen when the map was last full
+        volatile long threshold;
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(String topic) {
+            long hash = Hashing.hash64(topic);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                int index = row * width + Math.floorMod(h1 + row * h2, width);
+                estimate = Math.min(estimate, counters.incrementAndGet(index));
+            }
+            offer(topic, estimate);
+        }
+
+        long estimate(String topic) {
+            long hash = Hashing.hash64(topic);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                estimate = Math.min(estimate, counters.get(row * width + Math.floorMod(h1 + row * h2, width)));
+            }
+            return estimate;
+        }
+
+        /**
+         * Keeps the topic as a candidate if it is one already, there is room, or it outweighs the
+         * lightest candidate, which it then replaces. Concurrent offers may briefly leave a few
+         * more than top-K candidates, which only makes the answer more complete.
+         */
+        private void offer(String topic, long estimate) {
+            Long previous = candidates.get(topic);
+            if (previous != null) {
+                if (estimate > previous) {
+                    candidates.replace(topic, previous, estimate);
+                }
+                return;
+            }
+            if (candidates.size() < topK) {
+                candidates.putIfAbsent(topic, estimate);
+                return;
+            }
+            if (estimate <= threshold) {
+                return;
+            }
+            Map.Entry<String, Long> lightest = null;
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                if (lightest == null || candidate.getValue() < lightest.getValue()) {
+                    lightest = candidate;
+                }
+            }
+            if (lightest == null) {
+                return;
+            }
+            threshold = lightest.getValue();
+            if (estimate > lightest.getValue() && candidates.remove(lightest.getKey(), lightest.getValue())) {
+                candidates.put(topic, estimate);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over usernames.
+ * A negative answer from {@link #mightContain(String)} is definite, so callers can skip
+ * the database for usernames that were never added. Positive answers may be false
+ * positives at roughly the configured rate while fewer than the expected number of
+ * usernames have been added.
+ */
+public class UsernameBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the expected number of usernames.
+     * @param expectedInsertions the number of usernames the filter is sized for
+     * @param falsePositiveRate the target false positive rate, between 0 and 1
+     */
+    public UsernameBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Records a username as present.
+     * @param username the username
+     */
+    public void add(String username) {
+        long hash = Hashing.hash64(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            long mask = 1L << bit;
+            bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    /**
+     * Checks whether a username may have been added.
+     * @param username the username
+     * @return false if the username was definitely never added, true otherwise
+     */
+    public boolean mightContain(String username) {
+        long hash = Hashing.hash64(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.sharding;
+
+import com.example.metrics.QueryCounter;
+import com.example.metrics.QueryStats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Places messages, with their hashtags and mentions, on shards by a jump consistent hash of
+ * `postedBy`, so all of an account's messages are on one shard and adding a shard moves only the
+ * messages of about 1/N of the accounts. Everything else stays on shard 0, the home shard.
+ * <p>
+ * With the "sharding" profile there is one shard per URL in {@code app.sharding.urls}; otherwise
+ * there is one shard, and every method runs its work directly in the caller's transaction. With
+ * several shards, work for one shard runs in a transaction of its own on that shard, read-only if
+ * the caller's transaction is, and work for several shards runs in parallel on virtual threads.
+ * Writes to several shards are therefore not atomic, and after-commit actions that query must be
+ * registered outside the work, where they run after the caller's transaction instead.
+ * <p>
+ * Message IDs are unique across shards: shard k allocates from its own sequence, starting at
+ * k &times; {@value #ID_RANGE}, in blocks kept per shard by {@link ShardSequenceGenerator}, so IDs
+ * never collide and moving a message keeps its ID. A lookup by ID therefore tries the allocating
+ * shard first and only scans the others if the message moved.
+ */
+@Component
+public class MessageShards {
+
+    /**
+     * Largest number of shards; their ID ranges split the positive int range.
+     */
+    public static final int MAX_SHARDS = 16;
+    /**
+     * Number of message IDs each shard can allocate.
+     */
+    public static final int ID_RANGE = 1 << 27;
+
+    private final int count;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService executor;
+
+    public MessageShards(PlatformTransactionManager transactionManager, Environment environment,
+                         @Value("${app.sharding.urls:}") List<String> urls) {
+        this.count = environment.matchesProfiles("sharding") ? urls.size() : 1;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager, writeTransaction);
+        readTransaction.setReadOnly(true);
+        this.executor = count > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param postedBy the poster of a message, may be null
+     * @return the shard holding the poster's messages; shard 0 for no poster
+     */
+    public int shardOf(Integer postedBy) {
+        return postedBy == null ? 0 : jumpHash(postedBy, count);
+    }
+
+    /**
+     * Runs work on one shard.
+     *
+     * @param shard the shard
+     * @param work the work; its statements go to the shard
+     * @return the result of the work
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        if (count == 1) {
+            return work.get();
+        }
+        return on(shard, TransactionSynchronizationManager.isCurrentTransactionReadOnly(), work);
+    }
+
+    /**
+     * Runs work on the shard holding a poster's messages.
+     *
+     * @param postedBy the poster, may be null
+     * @param work the work; its statements go to the poster's shard
+     * @return the result of the work
+     */
+    public <T> T onShardOf(Integer postedBy, Supplier<T> work) {
+        return on(shardOf(postedBy), work);
+    }
+
+    /**
+     * @param messageId a message ID
+     * @return the shard whose sequence allocated the ID; shard 0 for an ID outside every shard's range
+     */
+    public int shardOfId(int messageId) {
+        int shard = messageId / ID_RANGE;
+        return messageId >= 0 && shard < count ? shard : 0;
+    }
+
+    /**
+     * Looks up a message on the shard that allocated its ID and, if it is not there because it
+     * was moved to its poster's shard or seeded elsewhere, on every other shard.
+     *
+     * @param messageId the message ID
+     * @param lookup the lookup, run once per shard tried; null if the shard does not hold the message
+     * @return the first result that is not null, or null if no shard holds the message
+     */
+    public <T> T onShardOfId(int messageId, Supplier<T> lookup) {
+        int allocator = shardOfId(messageId);
+        T found = on(allocator, lookup);
+        if (found != null || count == 1) {
+            return found;
+        }
+        List<Integer> others = new ArrayList<>(count - 1);
+        for (int shard = 0; shard < count; shard++) {
+            if (shard != allocator) {
+                others.add(shard);
+            }
+        }
+        for (T result : inParallel(others, shard -> lookup.get())) {
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the same work on every shard.
+     *
+     * @param work the work, run once per shard
+     * @return the results, in shard order
+     */
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        if (count == 1) {
+            return Collections.singletonList(work.get());
+        }
+        List<Integer> shards = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            shards.add(shard);
+        }
+        return inParallel(shards, shard -> work.get());
+    }
+
+    /**
+     * Splits items by the shard of their poster and runs work on each shard that has any.
+     *
+     * @param items the items to split
+     * @param postedBy the poster of an item
+     * @param work the work, run on each shard with that shard's items in their original order
+     * @return the results, in shard order
+     */
+    public <E, T> List<T> onShardsOf(Collection<E> items, Function<E, Integer> postedBy, Function<List<E>, T> work) {
+        if (count == 1) {
+            return Collections.singletonList(work.apply(items instanceof List<E> list ? list : new ArrayList<>(items)));
+        }
+        Map<Integer, List<E>> byShard = new TreeMap<>();
+        for (E item : items) {
+            byShard.computeIfAbsent(shardOf(postedBy.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return inParallel(new ArrayList<>(byShard.keySet()), shard -> work.apply(byShard.get(shard)));
+    }
+
+    /**
+     * Runs work on several shards at once; a single shard runs on the calling thread. The queries
+     * of the other threads are counted in the calling thread's {@link QueryStats}.
+     */
+    private <T> List<T> inParallel(List<Integer> shards, Function<Integer, T> work) {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            return Collections.singletonList(on(shard, readOnly, () -> work.apply(shard)));
+        }
+        QueryStats stats = QueryCounter.current();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (Integer shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                QueryCounter.resume(stats);
+                try {
+                    return on(shard, readOnly, () -> work.apply(shard));
+                } finally {
+                    QueryCounter.stop();
+                }
+            }, executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private <T> T on(int shard, boolean readOnly, Supplier<T> work) {
+        Integer previous = ShardRoutingDataSource.current();
+        ShardRoutingDataSource.route(shard);
+        try {
+            return (readOnly ? readTransaction : writeTransaction).execute(status -> work.get());
+        } finally {
+            ShardRoutingDataSource.route(previous);
+        }
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): maps a key to one of {@code buckets} buckets so that
+     * going from n to n + 1 buckets moves only about 1/(n + 1) of the keys, all to the new bucket.
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
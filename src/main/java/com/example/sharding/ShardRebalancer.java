@@ -0,0 +1,95 @@
+package com.example.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Moves messages, with their hashtags and mentions, to the shard their poster hashes to. Runs
+ * before the application serves requests, so a shard can be added by appending its URL to
+ * {@code app.sharding.urls} and restarting with {@code spring.sql.init.mode=never}: the new shard is
+ * created, and the messages of the accounts that now hash to it (about 1/N of them) are moved.
+ * It also places the sample messages of data.sql, which are all inserted on shard 0.
+ * <p>
+ * Each poster's messages are copied to the target shard and then deleted from the source, in two
+ * transactions. The copy overwrites rows with the same ID, so a move interrupted between the two
+ * is completed by the next run.
+ */
+@Component
+@Profile("sharding")
+@DependsOnDatabaseInitialization
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final MessageShards shards;
+    private final JdbcTemplate jdbc;
+
+    public ShardRebalancer(MessageShards shards, JdbcTemplate jdbc) {
+        this.shards = shards;
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void rebalanceOnStartup() {
+        rebalance();
+    }
+
+    /**
+     * Moves every message that is not on its poster's shard.
+     *
+     * @return the number of messages moved
+     */
+    public int rebalance() {
+        int moved = 0;
+        int posters = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            int source = shard;
+            List<Integer> postedBy = shards.on(source, () -> jdbc.queryForList(
+                    "select distinct postedBy from message where postedBy is not null", Integer.class));
+            for (Integer poster : postedBy) {
+                int target = shards.shardOf(poster);
+                if (target != source) {
+                    moved += move(poster, source, target);
+                    posters++;
+                }
+            }
+        }
+        log.info("Moved {} messages of {} accounts across {} shards", moved, posters, shards.count());
+        return moved;
+    }
+
+    private int move(int poster, int source, int target) {
+        List<Object[]> messages = rows(source, 4,
+                "select messageId, postedBy, messageText, timePostedEpoch from message where postedBy = ?", poster);
+        List<Object[]> hashtags = rows(source, 2, "select h.messageId, h.tag from message_hashtag h"
+                + " join message m on m.messageId = h.messageId where m.postedBy = ?", poster);
+        List<Object[]> mentions = rows(source, 2, "select n.messageId, n.username from message_mention n"
+                + " join message m on m.messageId = n.messageId where m.postedBy = ?", poster);
+        shards.on(target, () -> {
+            jdbc.batchUpdate("merge into message key (messageId) values (?, ?, ?, ?)", messages);
+            jdbc.batchUpdate("merge into message_hashtag key (messageId, tag) values (?, ?)", hashtags);
+            jdbc.batchUpdate("merge into message_mention key (messageId, username) values (?, ?)", mentions);
+            return null;
+        });
+        // the tags go with their messages (on delete cascade)
+        shards.on(source, () -> jdbc.update("delete from message where postedBy = ?", poster));
+        return messages.size();
+    }
+
+    private List<Object[]> rows(int shard, int columns, String sql, int poster) {
+        return shards.on(shard, () -> jdbc.query(sql, (resultSet, row) -> {
+            Object[] values = new Object[columns];
+            for (int column = 0; column < columns; column++) {
+                values[column] = resultSet.getObject(column + 1);
+            }
+            return values;
+        }, poster));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connects to the shard chosen for the current thread with {@link #route(Integer)}, or to shard 0,
+ * the home shard, when none is chosen. Behind a lazy connection proxy the shard is looked up at a
+ * transaction's first statement, so a transaction can still choose its shard after it has begun.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private final List<HikariDataSource> shards;
+
+    /**
+     * @param shards one connection pool per shard, shard 0 first; closed with this data source
+     */
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = shards;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    /**
+     * Sends the current thread's next connections to a shard.
+     *
+     * @param shard the shard, or null for the home shard
+     */
+    public static void route(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+
+    /**
+     * @return the shard chosen for the current thread, or null for the home shard
+     */
+    public static Integer current() {
+        return SHARD.get();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return SHARD.get();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates an ID from a database sequence of the shard the entity is inserted into, in blocks
+ * kept per shard (see {@link ShardSequenceGenerator}).
+ */
+@IdGeneratorType(ShardSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardSequence {
+
+    /**
+     * @return the name of the sequence, which every shard has
+     */
+    String sequenceName();
+
+    /**
+     * @return the number of IDs reserved by each sequence call; the sequence must increment by it
+     */
+    int allocationSize() default 50;
+}
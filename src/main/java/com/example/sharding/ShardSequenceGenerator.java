@@ -0,0 +1,71 @@
+package com.example.sharding;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generator of {@link ShardSequence} IDs. Like Hibernate's pooled-lo optimizer, each sequence value
+ * is the first ID of a block of {@code allocationSize} IDs handed out without a round trip, but a
+ * block is kept per shard and taken from the sequence of the shard the current thread is routed
+ * to, the one the insert goes to. So every ID comes from the ID range of the shard that holds the
+ * row, which {@link MessageShards#shardOfId(int)} relies on. Without the "sharding" profile no
+ * shard is routed and there is one block, as with pooled-lo.
+ */
+public class ShardSequenceGenerator implements IdentifierGenerator {
+
+    private final int allocationSize;
+    private final String nextValueSql;
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    public ShardSequenceGenerator(ShardSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.allocationSize = config.allocationSize();
+        this.nextValueSql = context.getDatabase().getDialect().getSequenceSupport()
+                .getSequenceNextValString(config.sequenceName());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer shard = ShardRoutingDataSource.current();
+        Block block = blocks.computeIfAbsent(shard == null ? 0 : shard, key -> new Block());
+        synchronized (block) {
+            if (block.next == block.end) {
+                block.next = nextValue(session);
+                block.end = block.next + allocationSize;
+            }
+            return Math.toIntExact(block.next++);
+        }
+    }
+
+    /**
+     * Calls the sequence on the session's connection, which is routed to the current shard.
+     */
+    private long nextValue(SharedSessionContractImplementor session) {
+        try (PreparedStatement statement = session.getJdbcCoordinator().getLogicalConnection()
+                .getPhysicalConnection().prepareStatement(nextValueSql);
+             ResultSet result = statement.executeQuery()) {
+            if (!result.next()) {
+                throw new HibernateException("Sequence returned no value: " + nextValueSql);
+            }
+            return result.getLong(1);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not call the sequence", nextValueSql);
+        }
+    }
+
+    /**
+     * IDs of one shard not handed out yet: {@code next} up to, but excluding, {@code end}.
+     */
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
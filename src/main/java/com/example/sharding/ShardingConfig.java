@@ -0,0 +1,77 @@
+package com.example.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message sharding for the "sharding" profile: one database per URL in {@code app.sharding.urls}.
+ * Shard 0 is the home shard and gets the full schema from data.sql; the others get the message
+ * tables from shard.sql and a message sequence starting at their ID range (see
+ * {@link MessageShards}). A shard is recreated on startup unless {@code spring.sql.init.mode} is
+ * {@code never}, in which case only a shard without tables, such as one just added, is created.
+ * <p>
+ * The application's data source routes each transaction to the shard chosen by
+ * {@link MessageShards}, when the transaction runs its first statement. The shards' connection
+ * pools are not beans, so only the routing data source is counted by the query metrics.
+ */
+@Configuration
+@Profile("sharding")
+public class ShardingConfig implements DisposableBean {
+
+    private ShardRoutingDataSource shards;
+
+    @Bean
+    public DataSource dataSource(@Value("${app.sharding.urls}") List<String> urls,
+                                 @Value("${app.sharding.pool-size:10}") int poolSize,
+                                 @Value("${spring.sql.init.mode:embedded}") DatabaseInitializationMode initMode) {
+        if (urls.isEmpty() || urls.size() > MessageShards.MAX_SHARDS) {
+            throw new IllegalStateException("app.sharding.urls must list 1 to " + MessageShards.MAX_SHARDS + " shards");
+        }
+        List<HikariDataSource> pools = new ArrayList<>(urls.size());
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource pool = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(urls.get(shard)).username("sa").build();
+            pool.setPoolName("shard-" + shard);
+            pool.setMaximumPoolSize(poolSize);
+            pools.add(pool);
+            if (shard > 0) {
+                initialize(pool, shard, initMode);
+            }
+        }
+        shards = new ShardRoutingDataSource(pools);
+        return new LazyConnectionDataSourceProxy(shards);
+    }
+
+    @Override
+    public void destroy() {
+        if (shards != null) {
+            shards.close();
+        }
+    }
+
+    private static void initialize(DataSource shard, int index, DatabaseInitializationMode initMode) {
+        JdbcTemplate jdbc = new JdbcTemplate(shard);
+        Integer tables = jdbc.queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'MESSAGE'", Integer.class);
+        if (initMode == DatabaseInitializationMode.NEVER && tables != null && tables > 0) {
+            return;
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("shard.sql")).execute(shard);
+        jdbc.execute("create sequence message_seq start with " + index * MessageShards.ID_RANGE + " increment by 50");
+    }
+}
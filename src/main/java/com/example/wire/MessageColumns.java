@@ -0,0 +1,238 @@
+package com.example.wire;
+
+import com.example.entity.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Compact columnar encoding of message lists, served as {@value #MEDIA_TYPE}. The messages are
+ * stored column by column:
+ * <pre>
+ * count                  unsigned varint
+ * messageId column       nulls, then a zigzag varint delta per non-null value
+ * postedBy column        nulls, then a zigzag varint delta per non-null value
+ * timePostedEpoch column nulls, then a zigzag varint delta per non-null value
+ * messageText column     nulls, then the UTF-8 length (unsigned varint) and bytes of each non-null text
+ * </pre>
+ * "nulls" is a byte: 0 if the column has no null value, or 1 followed by a bitmap of count bits,
+ * lowest bit first, in which the null values are set. A delta is taken from the column's previous
+ * non-null value, starting from 0, so ascending message IDs and posting times take one or two
+ * bytes each, and the postedBy of a single account's messages one byte each.
+ */
+public final class MessageColumns {
+
+    /**
+     * Media type of the encoding.
+     */
+    public static final String MEDIA_TYPE = "application/x-message-columns";
+
+    private MessageColumns() {
+    }
+
+    /**
+     * Encodes messages.
+     *
+     * @param messages the messages
+     * @return the encoded messages
+     */
+    public static byte[] encode(List<Message> messages) {
+        Output out = new Output(16 + messages.size() * 16);
+        out.writeVarint(messages.size());
+        writeNumbers(out, messages, Message::getMessageId);
+        writeNumbers(out, messages, Message::getPostedBy);
+        writeNumbers(out, messages, Message::getTimePostedEpoch);
+        writeNulls(out, messages, Message::getMessageText);
+        for (Message message : messages) {
+            String text = message.getMessageText();
+            if (text != null) {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                out.writeVarint(bytes.length);
+                out.write(bytes);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes messages.
+     *
+     * @param bytes the encoded messages
+     * @param maxCount the largest number of messages accepted
+     * @return the messages
+     * @throws IllegalArgumentException if the bytes are not a valid encoding or hold more than {@code maxCount} messages
+     */
+    public static List<Message> decode(byte[] bytes, int maxCount) {
+        Input in = new Input(bytes);
+        long count = in.readVarint();
+        if (count < 0 || count > maxCount) {
+            throw new IllegalArgumentException("More than " + maxCount + " messages");
+        }
+        List<Message> messages = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message());
+        }
+        readNumbers(in, messages, (message, value) -> message.setMessageId(Math.toIntExact(value)));
+        readNumbers(in, messages, (message, value) -> message.setPostedBy(Math.toIntExact(value)));
+        readNumbers(in, messages, Message::setTimePostedEpoch);
+        boolean[] nulls = readNulls(in, messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            if (!nulls[i]) {
+                int length = (int) Math.min(in.readVarint(), Integer.MAX_VALUE);
+                messages.get(i).setMessageText(new String(bytes, in.skip(length), length, StandardCharsets.UTF_8));
+            }
+        }
+        if (in.position != bytes.length) {
+            throw new IllegalArgumentException("Trailing bytes after the message columns");
+        }
+        return messages;
+    }
+
+    private static void writeNumbers(Output out, List<Message> messages, Function<Message, Number> column) {
+        writeNulls(out, messages, column);
+        long previous = 0;
+        for (Message message : messages) {
+            Number value = column.apply(message);
+            if (value != null) {
+                long delta = value.longValue() - previous;
+                out.writeVarint((delta << 1) ^ (delta >> 63));
+                previous = value.longValue();
+            }
+        }
+    }
+
+    private static void readNumbers(Input in, List<Message> messages, BiConsumer<Message, Long> column) {
+        boolean[] nulls = readNulls(in, messages.size());
+        long previous = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            if (!nulls[i]) {
+                long zigzag = in.readVarint();
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                try {
+                    column.accept(messages.get(i), previous);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Value out of range: " + previous);
+                }
+            }
+        }
+    }
+
+    private static void writeNulls(Output out, List<Message> messages, Function<Message, ?> column) {
+        byte[] bitmap = null;
+        for (int i = 0; i < messages.size(); i++) {
+            if (column.apply(messages.get(i)) == null) {
+                if (bitmap == null) {
+                    bitmap = new byte[(messages.size() + 7) / 8];
+                }
+                bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        if (bitmap == null) {
+            out.write(0);
+        } else {
+            out.write(1);
+            out.write(bitmap);
+        }
+    }
+
+    private static boolean[] readNulls(Input in, int count) {
+        boolean[] nulls = new boolean[count];
+        int marker = in.read();
+        if (marker == 1) {
+            int bitmap = in.skip((count + 7) / 8);
+            for (int i = 0; i < count; i++) {
+                nulls[i] = (in.bytes[bitmap + (i >>> 3)] & (1 << (i & 7))) != 0;
+            }
+        } else if (marker != 0) {
+            throw new IllegalArgumentException("Invalid null marker " + marker);
+        }
+        return nulls;
+    }
+
+    /**
+     * Growable output buffer.
+     */
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+
+    /**
+     * Reader over the encoded bytes that rejects reads past the end.
+     */
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() {
+            return bytes[skip(1)] & 0xFF;
+        }
+
+        /**
+         * Moves past the given number of bytes.
+         * @return the position of the first of them
+         */
+        int skip(int length) {
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated message columns");
+            }
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.wire;
+
+import com.example.entity.Message;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads and writes message lists in the {@link MessageColumns} encoding. Request bodies are read
+ * into any list parameter; only a {@link MessageList} response body is written, so a route that
+ * returns another type answers {@value MessageColumns#MEDIA_TYPE} with 406 Not Acceptable.
+ */
+public class MessageColumnsHttpMessageConverter extends AbstractHttpMessageConverter<List<Message>> {
+
+    private final int maxCount;
+
+    /**
+     * @param maxCount the largest number of messages accepted in a request body
+     */
+    public MessageColumnsHttpMessageConverter(int maxCount) {
+        super(MediaType.parseMediaType(MessageColumns.MEDIA_TYPE));
+        this.maxCount = maxCount;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return MessageList.class.isAssignableFrom(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected List<Message> readInternal(Class<? extends List<Message>> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            return MessageColumns.decode(inputMessage.getBody().readAllBytes(), maxCount);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(List<Message> messages, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = MessageColumns.encode(messages);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
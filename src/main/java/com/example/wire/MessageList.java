@@ -0,0 +1,35 @@
+package com.example.wire;
+
+import com.example.entity.Message;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of a message list returned by a route that can send it as
+ * {@value MessageColumns#MEDIA_TYPE}. Content negotiation only sees the class of a response body,
+ * not its element type, so {@link MessageColumnsHttpMessageConverter} writes this type and no
+ * other list. In JSON, Smile and CBOR it is an array like any list.
+ */
+public final class MessageList extends AbstractList<Message> implements RandomAccess {
+
+    private final List<Message> messages;
+
+    /**
+     * @param messages the messages, not copied
+     */
+    public MessageList(List<Message> messages) {
+        this.messages = messages;
+    }
+
+    @Override
+    public Message get(int index) {
+        return messages.get(index);
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+}
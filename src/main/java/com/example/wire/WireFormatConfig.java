@@ -0,0 +1,58 @@
+package com.example.wire;
+
+import com.example.service.MessageService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.List;
+
+/**
+ * Wire formats of the Spring MVC routes, chosen by the request's Accept and Content-Type headers.
+ * JSON stays the default. Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}) are binary encodings of the same Jackson object model, registered by
+ * Spring MVC because their Jackson modules are on the classpath. Message lists can also be sent
+ * and received in the columnar {@link MessageColumns} encoding. Every response varies by Accept,
+ * so shared caches keep one copy per format.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Adds the columnar converter after the default ones, so it is only used when asked for, and
+     * sends {@code Vary: Accept} before each handler runs, so it is also on 304 and error responses.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer messageColumnsConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(new MessageColumnsHttpMessageConverter(MessageService.MAX_BATCH_SIZE));
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        // async results are dispatched a second time to the same response
+                        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                        }
+                        return true;
+                    }
+                });
+            }
+        };
+    }
+}
@@ -1,17 +1,56 @@
+drop table if exists follow;
+drop table if exists message_hashtag;
+drop table if exists message_mention;
 drop table if exists message;
 drop table if exists account;
+drop sequence if exists account_seq;
+drop sequence if exists message_seq;
+-- IDs are allocated in blocks (Hibernate's pooled-lo optimizer for accounts, ShardSequenceGenerator
+-- for messages); the increments must match the allocationSize of Account.accountId and Message.messageId. They start past the
+-- seeded IDs below (9996-9999), which a block would otherwise hand out again
+create sequence account_seq start with 10000 increment by 50;
+create sequence message_seq start with 10000 increment by 50;
 create table account (
-    accountId int primary key auto_increment,
+    accountId int primary key,
     username varchar(255) not null unique,
     password varchar(255)
 );
 create table message (
-    messageId int primary key auto_increment,
+    messageId int primary key,
     postedBy int,
     messageText varchar(255),
     timePostedEpoch bigint,
     foreign key (postedBy) references account(accountId)
 );
+-- Keyset pagination of a user's messages seeks on (postedBy, messageId)
+create index message_postedBy_messageId_idx on message (postedBy, messageId);
+-- Time-range reads are newest first; descending keys let a page stop after its last row
+create index message_timePostedEpoch_idx on message (timePostedEpoch desc, messageId desc);
+create index message_postedBy_timePostedEpoch_messageId_idx on message (postedBy, timePostedEpoch desc, messageId desc);
+-- Hashtags and mentions extracted from message text; rows go with their message
+create table message_hashtag (
+    messageId int not null,
+    tag varchar(255) not null,
+    primary key (messageId, tag),
+    foreign key (messageId) references message(messageId) on delete cascade
+);
+create index message_hashtag_tag_messageId_idx on message_hashtag (tag, messageId);
+create table message_mention (
+    messageId int not null,
+    username varchar(255) not null,
+    primary key (messageId, username),
+    foreign key (messageId) references message(messageId) on delete cascade
+);
+create index message_mention_username_messageId_idx on message_mention (username, messageId);
+create table follow (
+    followerId int not null,
+    followeeId int not null,
+    primary key (followerId, followeeId),
+    foreign key (followerId) references account(accountId),
+    foreign key (followeeId) references account(accountId)
+);
+-- Fan-out on write looks up the followers of a poster
+create index follow_followeeId_followerId_idx on follow (followeeId, followerId);
 
 -- Starting test values with ids of 9999 to avoid test issues
 insert into account values (9999, 'testuser1', 'password');
@@ -22,4 +61,3 @@ insert into account values (9996, 'testuser4', 'password');
 insert into message values (9999, 9999,'test message 1',1669947792);
 insert into message values (9997, 9997,'test message 2',1669947792);
 insert into message values (9996, 9996,'test message 3',1669947792);
-
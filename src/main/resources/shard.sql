@@ -0,0 +1,30 @@
+-- Schema of shards 1..N-1 in the "sharding" profile: messages and their tags only.
+-- Accounts live on shard 0, so postedBy has no foreign key here. Keep the tables and
+-- indexes in step with data.sql. message_seq is created per shard by ShardingConfig.
+drop table if exists message_hashtag;
+drop table if exists message_mention;
+drop table if exists message;
+drop sequence if exists message_seq;
+create table message (
+    messageId int primary key,
+    postedBy int,
+    messageText varchar(255),
+    timePostedEpoch bigint
+);
+create index message_postedBy_messageId_idx on message (postedBy, messageId);
+create index message_timePostedEpoch_idx on message (timePostedEpoch desc, messageId desc);
+create index message_postedBy_timePostedEpoch_messageId_idx on message (postedBy, timePostedEpoch desc, messageId desc);
+create table message_hashtag (
+    messageId int not null,
+    tag varchar(255) not null,
+    primary key (messageId, tag),
+    foreign key (messageId) references message(messageId) on delete cascade
+);
+create index message_hashtag_tag_messageId_idx on message_hashtag (tag, messageId);
+create table message_mention (
+    messageId int not null,
+    username varchar(255) not null,
+    primary key (messageId, username),
+    foreign key (messageId) references message(messageId) on delete cascade
+);
+create index message_mention_username_messageId_idx on message_mention (username, messageId);
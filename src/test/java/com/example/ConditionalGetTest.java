@@ -0,0 +1,175 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.example.service.MessageService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ETags and If-None-Match on GET /messages/{messageId} and GET /accounts/{accountId}/messages.
+ */
+public class ConditionalGetTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Polls GET localhost:8080/messages/9999 with the ETag of the last response, around an update
+     * and a deletion.
+     *
+     * Expected Response:
+     *  Status Code: 304 with an empty body while the message is unchanged; 200 with a new ETag
+     *  after the update and after the deletion
+     */
+    @Test
+    public void getMessageIsNotModifiedUntilMessageChanges() throws IOException, InterruptedException {
+        HttpResponse<String> first = get("/messages/9999", null);
+        Assertions.assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertTrue(etag.startsWith("\""), "Expected a strong ETag, got " + etag);
+
+        HttpResponse<String> unchanged = get("/messages/9999", etag);
+        Assertions.assertEquals(304, unchanged.statusCode());
+        Assertions.assertEquals("", unchanged.body());
+        Assertions.assertEquals(etag, unchanged.headers().firstValue("ETag").orElseThrow());
+        Assertions.assertEquals(200, get("/messages/9999", "\"other\"").statusCode());
+
+        HttpResponse<String> updated = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\":\"updated message\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, updated.statusCode());
+        HttpResponse<String> afterUpdate = get("/messages/9999", etag);
+        Assertions.assertEquals(200, afterUpdate.statusCode());
+        Assertions.assertEquals("updated message", objectMapper.readValue(afterUpdate.body(), Message.class).getMessageText());
+        String updatedTag = afterUpdate.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertNotEquals(etag, updatedTag);
+        Assertions.assertEquals(304, get("/messages/9999", updatedTag).statusCode());
+
+        webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> afterDelete = get("/messages/9999", updatedTag);
+        Assertions.assertEquals(200, afterDelete.statusCode());
+        Assertions.assertEquals("", afterDelete.body());
+    }
+
+    /**
+     * Polls GET localhost:8080/accounts/9999/messages with the ETag of the last response while
+     * another account and then the account itself post.
+     *
+     * Expected Response:
+     *  Status Code: 304 until account 9999 posts, then 200 with the new message and a new ETag
+     */
+    @Test
+    public void getAccountMessagesIsNotModifiedUntilAccountPosts() throws IOException, InterruptedException {
+        HttpResponse<String> first = get("/accounts/9999/messages", null);
+        Assertions.assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertEquals(304, get("/accounts/9999/messages", etag).statusCode());
+
+        post(9998);
+        Assertions.assertEquals(304, get("/accounts/9999/messages", etag).statusCode());
+
+        post(9999);
+        HttpResponse<String> afterPost = get("/accounts/9999/messages", etag);
+        Assertions.assertEquals(200, afterPost.statusCode());
+        Assertions.assertEquals(2, objectMapper.readValue(afterPost.body(), new TypeReference<List<Message>>() {}).size());
+        String newTag = afterPost.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertNotEquals(etag, newTag);
+        Assertions.assertEquals(304, get("/accounts/9999/messages?limit=1", newTag).statusCode());
+    }
+
+    /**
+     * Reads GET localhost:8080/messages/9999 and /accounts/9999/messages, updates the message, then
+     * puts the copies cached before the update back, as a reader that loaded them before the
+     * update committed would, and reads both again.
+     *
+     * Expected Response:
+     *  Status Code: 200 with the updated text and a new ETag; the stale copies are not served
+     */
+    @Test
+    public void copyCachedBeforeUpdateIsNotServedAfterIt() throws IOException, InterruptedException {
+        String etag = get("/messages/9999", null).headers().firstValue("ETag").orElseThrow();
+        get("/accounts/9999/messages", null);
+        CacheManager cacheManager = app.getBean(CacheManager.class);
+        Cache messages = cacheManager.getCache(MessageService.MESSAGE_CACHE);
+        Cache accountMessages = cacheManager.getCache(MessageService.ACCOUNT_MESSAGES_CACHE);
+        Object staleMessage = messages.get(9999).get();
+        Object staleList = accountMessages.get(9999).get();
+
+        HttpResponse<String> updated = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\":\"updated message\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, updated.statusCode());
+        messages.put(9999, staleMessage);
+        accountMessages.put(9999, staleList);
+
+        HttpResponse<String> afterUpdate = get("/messages/9999", etag);
+        Assertions.assertEquals(200, afterUpdate.statusCode());
+        Assertions.assertEquals("updated message", objectMapper.readValue(afterUpdate.body(), Message.class).getMessageText());
+        String updatedTag = afterUpdate.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertNotEquals(etag, updatedTag);
+        Assertions.assertEquals(304, get("/messages/9999", updatedTag).statusCode());
+        List<Message> list = objectMapper.readValue(get("/accounts/9999/messages", null).body(), new TypeReference<List<Message>>() {});
+        Assertions.assertEquals("updated message", list.get(0).getMessageText());
+    }
+
+    private void post(int postedBy) throws IOException, InterruptedException {
+        HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":" + postedBy
+                        + ",\"messageText\":\"polled\",\"timePostedEpoch\":1669947800}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
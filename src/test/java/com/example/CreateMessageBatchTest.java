@@ -0,0 +1,145 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessageBatchResult;
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CreateMessageBatchTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/messages/batch with two valid messages, one blank
+     * message and one message from a user that doesnt exist in db
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: per-item results in request order; the valid messages are created
+     */
+    @Test
+    public void createMessageBatchPerItemResults() throws IOException, InterruptedException {
+    	String json = "["
+    			+ "{\"postedBy\":9999,\"messageText\": \"first\",\"timePostedEpoch\": 1669947792},"
+    			+ "{\"postedBy\":9999,\"messageText\": \"\",\"timePostedEpoch\": 1669947792},"
+    			+ "{\"postedBy\":5050,\"messageText\": \"unknown user\",\"timePostedEpoch\": 1669947792},"
+    			+ "{\"postedBy\":9998,\"messageText\": \"second\",\"timePostedEpoch\": 1669947793}"
+    			+ "]";
+        HttpRequest postMessageRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        List<MessageBatchResult> results = objectMapper.readValue(response.body().toString(), new TypeReference<List<MessageBatchResult>>(){});
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertEquals(200, results.get(0).getStatus());
+        Assertions.assertEquals(400, results.get(1).getStatus());
+        Assertions.assertEquals(400, results.get(2).getStatus());
+        Assertions.assertEquals(200, results.get(3).getStatus());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9998/messages"))
+                .build();
+        response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Message> actualResult = objectMapper.readValue(response.body().toString(), new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(List.of(results.get(3).getMessage()), actualResult, "Expected="+results.get(3).getMessage() + ", Actual="+actualResult);
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/messages/batch with an empty array
+     * 
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void createMessageBatchEmpty() throws IOException, InterruptedException {
+        HttpRequest postMessageRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString("[]"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(400, status, "Expected Status Code 400 - Actual Code was: " + status);
+    }
+
+    /**
+     * Registering an account, then sending 10 full batches to POST localhost:8080/messages/batch, so
+     * that more IDs are allocated than the seeded IDs 9996-9999 leave room for
+     *
+     * Expected Response:
+     *  Status Code: 200 for the registration and every batch; each message is created with a new
+     *  ID above the seeded ones
+     */
+    @Test
+    public void newIdsDoNotCollideWithSeededIds() throws IOException, InterruptedException {
+        HttpResponse<String> registered = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/register"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user\",\"password\":\"password\"}"))
+                .header("Content-Type", "application/json")
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, registered.statusCode(), "Actual body: " + registered.body());
+        Assertions.assertTrue(objectMapper.readValue(registered.body(), Account.class).getAccountId() > 9999);
+
+        Set<Integer> ids = new HashSet<>();
+        for (int batch = 0; batch < 10; batch++) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 1000; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"postedBy\":9999,\"messageText\":\"message ")
+                        .append(batch).append('.').append(i).append("\",\"timePostedEpoch\":1669947792}");
+            }
+            HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/batch"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json.append("]").toString()))
+                    .header("Content-Type", "application/json")
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode(), "Expected Status Code 200 - Actual Code was: " + response.statusCode());
+            for (MessageBatchResult result : objectMapper.readValue(response.body(), new TypeReference<List<MessageBatchResult>>(){})) {
+                Assertions.assertEquals(200, result.getStatus());
+                Assertions.assertTrue(result.getMessage().getMessageId() > 9999, "Seeded ID " + result.getMessage().getMessageId());
+                Assertions.assertTrue(ids.add(result.getMessage().getMessageId()));
+            }
+        }
+    }
+}
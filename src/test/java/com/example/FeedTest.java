@@ -0,0 +1,170 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.TimeRangePage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class FeedTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the app with the given arguments; each test picks its own fan-out threshold.
+     * @throws InterruptedException
+     */
+    private void startApp(String... args) throws InterruptedException {
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * User 9998 follows users 9999 and 9997, reads their feed, then user 9999 posts a new message
+     * and the feed is read again.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the followed users' messages, newest first, including the new message
+     */
+    @Test
+    public void feedIncludesNewMessagesWithFanOutOnWrite() throws IOException, InterruptedException {
+        startApp();
+        assertFeedAfterNewMessage();
+    }
+
+    /**
+     * Same as {@link #feedIncludesNewMessagesWithFanOutOnWrite()}, but with a fan-out threshold of 0 so
+     * every followed user's messages are merged into the feed at read time.
+     */
+    @Test
+    public void feedIncludesNewMessagesWithFanOutOnRead() throws IOException, InterruptedException {
+        startApp("--app.feed.fan-out-threshold=0");
+        assertFeedAfterNewMessage();
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/9998/feed?limit=1 and following the cursor
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: one message per page, newest first, with a cursor until the last page
+     */
+    @Test
+    public void feedPagesFollowingCursor() throws IOException, InterruptedException {
+        startApp();
+        follow(9998, 9999);
+        follow(9998, 9997);
+        TimeRangePage page = getFeed("limit=1");
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "test message 1", 1669947792L)), page.getMessages());
+        Assertions.assertEquals(1669947792L, page.getNextUntil());
+        Assertions.assertEquals(9999, page.getNextCursor());
+        page = getFeed("limit=1&until=" + page.getNextUntil() + "&before=" + page.getNextCursor());
+        Assertions.assertEquals(List.of(new Message(9997, 9997, "test message 2", 1669947792L)), page.getMessages());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    /**
+     * User 9998 follows user 9999, who then posts a message dated before the seeded messages, and
+     * one without a posting time.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the messages ordered by posting time, not by message ID; the message without
+     *  a posting time last
+     */
+    @Test
+    public void feedIsOrderedByPostingTime() throws IOException, InterruptedException {
+        startApp();
+        follow(9998, 9999);
+        Message undated = postMessage("{\"postedBy\":9999,\"messageText\":\"undated\"}");
+        Message older = postMessage("{\"postedBy\":9999,\"messageText\":\"backdated\",\"timePostedEpoch\":1669940000}");
+        List<Message> expectedResult = List.of(new Message(9999, 9999, "test message 1", 1669947792L), older, undated);
+        Assertions.assertEquals(expectedResult, getFeed("").getMessages());
+
+        TimeRangePage page = getFeed("limit=2");
+        Assertions.assertEquals(expectedResult.subList(0, 2), page.getMessages());
+        page = getFeed("limit=2&until=" + page.getNextUntil() + "&before=" + page.getNextCursor());
+        Assertions.assertEquals(List.of(undated), page.getMessages());
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/accounts/9998/following/5050 (account does not exist)
+     * 
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void followUnknownAccount() throws IOException, InterruptedException {
+        startApp();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9998/following/5050"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(400, status, "Expected Status Code 400 - Actual Code was: " + status);
+    }
+
+    private void assertFeedAfterNewMessage() throws IOException, InterruptedException {
+        follow(9998, 9999);
+        follow(9998, 9997);
+        List<Message> expectedResult = new ArrayList<Message>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        Assertions.assertEquals(expectedResult, getFeed("").getMessages());
+
+        expectedResult.add(0, postMessage("{\"postedBy\":9999,\"messageText\": \"hello followers\",\"timePostedEpoch\": 1669947800}"));
+        List<Message> actualResult = getFeed("").getMessages();
+        Assertions.assertEquals(expectedResult, actualResult, "Expected="+expectedResult + ", Actual="+actualResult);
+    }
+
+    private void follow(int followerId, int followeeId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/" + followerId + "/following/" + followeeId))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Expected Status Code 200 - Actual Code was: " + response.statusCode());
+    }
+
+    private Message postMessage(String json) throws IOException, InterruptedException {
+        HttpRequest postMessageRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages?userId=9999"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        return objectMapper.readValue(response.body().toString(), Message.class);
+    }
+
+    private TimeRangePage getFeed(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9998/feed?" + query))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body().toString(), TimeRangePage.class);
+    }
+}
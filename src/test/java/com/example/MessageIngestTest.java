@@ -0,0 +1,231 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.entity.Message;
+import com.example.service.MessageIngestService;
+import com.example.service.MessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * POST /messages with write-behind ingestion enabled.
+ */
+public class MessageIngestTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the app with ingestion enabled, plus the given arguments.
+     * @throws InterruptedException
+     */
+    private void startApp(String... args) throws InterruptedException {
+        String[] allArgs = new String[args.length + 1];
+        allArgs[0] = "--app.ingest.enabled=true";
+        System.arraycopy(args, 0, allArgs, 1, args.length);
+        app = SpringApplication.run(SocialMediaApp.class, allArgs);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	if (app != null) {
+    	    Thread.sleep(500);
+    	    SpringApplication.exit(app);
+    	}
+    }
+
+    /**
+     * Sending 40 concurrent http requests to POST localhost:8080/messages, then an invalid one
+     *
+     * Expected Response:
+     *  Status Code: 200 for each valid message, with a distinct message ID; 400 for the invalid one
+     *  Database: every acknowledged message is stored
+     */
+    @Test
+    public void concurrentPostsAreCommittedBeforeResponding() throws IOException, InterruptedException {
+        startApp("--app.ingest.max-batch=16", "--app.ingest.max-delay=20ms");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            responses.add(webClient.sendAsync(post("{\"postedBy\":9999,\"messageText\":\"queued " + i
+                    + "\",\"timePostedEpoch\":1669947800}"), HttpResponse.BodyHandlers.ofString()));
+        }
+        Set<Integer> ids = new HashSet<>();
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        for (CompletableFuture<HttpResponse<String>> future : responses) {
+            HttpResponse<String> response = future.join();
+            Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+            Message message = objectMapper.readValue(response.body(), Message.class);
+            Assertions.assertTrue(ids.add(message.getMessageId()), "Duplicate ID " + message.getMessageId());
+            Assertions.assertEquals(message.getMessageText(), jdbc.queryForObject(
+                    "select messageText from message where messageId = ?", String.class, message.getMessageId()));
+        }
+
+        HttpResponse<String> response = webClient.send(post("{\"postedBy\":9999,\"messageText\":\"\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    /**
+     * Filling a one-message queue whose batch waits a second, then posting again
+     *
+     * Expected Response:
+     *  Status Code: 429 with Retry-After for the second message, then 200 for the queued one
+     */
+    @Test
+    public void fullQueueRejectsWithTooManyRequests() throws IOException, InterruptedException {
+        startApp("--app.ingest.queue-capacity=1", "--app.ingest.max-delay=1s");
+        CompletableFuture<HttpResponse<String>> queued = webClient.sendAsync(
+                post("{\"postedBy\":9999,\"messageText\":\"first\",\"timePostedEpoch\":1669947800}"),
+                HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(300);
+
+        HttpResponse<String> rejected = webClient.send(
+                post("{\"postedBy\":9999,\"messageText\":\"second\",\"timePostedEpoch\":1669947800}"),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(429, rejected.statusCode());
+        Assertions.assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+
+        HttpResponse<String> accepted = queued.join();
+        Assertions.assertEquals(200, accepted.statusCode(), "Actual body: " + accepted.body());
+        Assertions.assertEquals("first", objectMapper.readValue(accepted.body(), Message.class).getMessageText());
+    }
+
+    /**
+     * Queuing a message, then reserving a place for a second one before the first batch is taken
+     * and queuing it only once that batch has been written and the queue is empty again; the
+     * writer runs against a stub message service, without the app.
+     *
+     * Expected Response:
+     *  Both messages are written, the second one within its max delay
+     */
+    @Test
+    public void postReservedWhileBatchIsWrittenIsNotLost() throws Exception {
+        MessageService messages = new MessageService() {
+            int nextId = 1;
+
+            @Override
+            public boolean prepareNewMessage(Message message, Integer userId) {
+                return true;
+            }
+
+            @Override
+            public List<Message> saveNewMessages(List<Message> batch) {
+                batch.forEach(message -> message.setMessageId(nextId++));
+                return batch;
+            }
+        };
+        MessageIngestService ingest = stubbedIngest(messages);
+        ingest.start();
+        try {
+            CompletableFuture<Message> first = ingest.submit(new Message(9999, "first", 1669947800L), null);
+
+            // the ingest service clears the ID between reserving a place and queuing the message
+            CountDownLatch reserved = new CountDownLatch(1);
+            CountDownLatch offer = new CountDownLatch(1);
+            Message late = new Message(9999, "second", 1669947800L) {
+                @Override
+                public void setMessageId(Integer messageId) {
+                    if (messageId == null && reserved.getCount() > 0) {
+                        reserved.countDown();
+                        try {
+                            offer.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.setMessageId(messageId);
+                }
+            };
+            CompletableFuture<CompletableFuture<Message>> second = CompletableFuture.supplyAsync(() -> ingest.submit(late, null));
+            Assertions.assertTrue(reserved.await(1, TimeUnit.SECONDS));
+
+            Assertions.assertEquals(1, first.get(1, TimeUnit.SECONDS).getMessageId());
+            Thread.sleep(100);
+            offer.countDown();
+            Assertions.assertEquals(2, second.get(1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS).getMessageId());
+        } finally {
+            ingest.stop();
+        }
+    }
+
+    /**
+     * Queuing a message whose write throws an Error, then another message; the writer runs
+     * against a stub message service, without the app.
+     *
+     * Expected Response:
+     *  The first message fails with the Error, and the second is still written
+     */
+    @Test
+    public void errorInBatchDoesNotStopWriter() throws Exception {
+        MessageService messages = new MessageService() {
+            @Override
+            public boolean prepareNewMessage(Message message, Integer userId) {
+                return true;
+            }
+
+            @Override
+            public List<Message> saveNewMessages(List<Message> batch) {
+                if (batch.stream().anyMatch(message -> "fails".equals(message.getMessageText()))) {
+                    throw new StackOverflowError();
+                }
+                batch.forEach(message -> message.setMessageId(1));
+                return batch;
+            }
+        };
+        MessageIngestService ingest = stubbedIngest(messages);
+        ingest.start();
+        try {
+            CompletableFuture<Message> failed = ingest.submit(new Message(9999, "fails", 1669947800L), null);
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(StackOverflowError.class, e.getCause());
+
+            CompletableFuture<Message> written = ingest.submit(new Message(9999, "written", 1669947800L), null);
+            Assertions.assertEquals(1, written.get(1, TimeUnit.SECONDS).getMessageId());
+        } finally {
+            ingest.stop();
+        }
+    }
+
+    /**
+     * Creates an ingest service that writes through the given message service.
+     */
+    private static MessageIngestService stubbedIngest(MessageService messages) {
+        MessageIngestService ingest = new MessageIngestService();
+        ReflectionTestUtils.setField(ingest, "messageService", messages);
+        ReflectionTestUtils.setField(ingest, "enabled", true);
+        ReflectionTestUtils.setField(ingest, "queueCapacity", 100);
+        ReflectionTestUtils.setField(ingest, "maxBatch", 16);
+        ReflectionTestUtils.setField(ingest, "maxDelay", Duration.ofMillis(200));
+        return ingest;
+    }
+
+    private static HttpRequest post(String body) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.SearchPage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageSearchTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/search?q=MESSAGE 2 (messages indexed at startup)
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the one message containing both terms, case-insensitively
+     */
+    @Test
+    public void searchFindsMessagesIndexedAtStartup() throws IOException, InterruptedException {
+        SearchPage page = search("MESSAGE 2");
+        Assertions.assertEquals(List.of(new Message(9997, 9997, "test message 2", 1669947792L)), page.getMessages());
+        Assertions.assertEquals(1, page.getTotal());
+        Assertions.assertNull(page.getNextOffset());
+        Assertions.assertEquals(3, search("test message").getTotal());
+        Assertions.assertEquals(0, search("test nothing").getTotal());
+    }
+
+    /**
+     * Creates a message, updates another and deletes a third, searching after each change.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: results that reflect every change, with quoted phrases matched in order
+     */
+    @Test
+    public void searchReflectsCreateUpdateAndDelete() throws IOException, InterruptedException {
+        Message created = createMessage("the quick brown fox");
+        Assertions.assertEquals(List.of(created), search("\"quick brown\"").getMessages());
+        Assertions.assertEquals(0, search("\"brown quick\"").getTotal());
+
+        send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"quick update\"}"))
+                .header("Content-Type", "application/json")
+                .build());
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "quick update", 1669947792L)),
+                search("update").getMessages());
+        Assertions.assertEquals(0, search("\"message 1\"").getTotal());
+
+        send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9997"))
+                .DELETE()
+                .build());
+        Assertions.assertEquals(List.of(new Message(9996, 9996, "test message 3", 1669947792L)),
+                search("message").getMessages());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/search?q=apple&limit=1 and following the offset
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: one message per page, the one mentioning the term most often first
+     */
+    @Test
+    public void searchRanksAndPagesResults() throws IOException, InterruptedException {
+        Message once = createMessage("apple pie with cream and a cup of tea");
+        Message twice = createMessage("apple and apple");
+        SearchPage page = search("apple", "&limit=1");
+        Assertions.assertEquals(List.of(twice), page.getMessages());
+        Assertions.assertEquals(2, page.getTotal());
+        Assertions.assertEquals(1, page.getNextOffset());
+        page = search("apple", "&limit=1&offset=" + page.getNextOffset());
+        Assertions.assertEquals(List.of(once), page.getMessages());
+        Assertions.assertNull(page.getNextOffset());
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/messages/search with a blank query or an invalid limit
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void searchRejectsInvalidParameters() throws IOException, InterruptedException {
+        for (String query : List.of("", "?q=%20", "?q=test&limit=0", "?q=test&limit=501", "?q=test&offset=-1")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/search" + query))
+                    .build();
+            HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(400, status, "Expected Status Code 400 for " + query + " - Actual Code was: " + status);
+        }
+    }
+
+    private Message createMessage(String text) throws IOException, InterruptedException {
+        String json = "{\"postedBy\":9999,\"messageText\": \"" + text + "\",\"timePostedEpoch\": 1669947800}";
+        HttpResponse<String> response = send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build());
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+
+    private SearchPage search(String query) throws IOException, InterruptedException {
+        return search(query, "");
+    }
+
+    private SearchPage search(String query, String parameters) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/search?q="
+                        + URLEncoder.encode(query, StandardCharsets.UTF_8) + parameters))
+                .build());
+        return objectMapper.readValue(response.body(), SearchPage.class);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+public class MetricsTest {
+	ApplicationContext app;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/9999, then GET localhost:8080/actuator/prometheus
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: Prometheus text format with the request timer and its histogram buckets,
+     *  the service method timer, the per-request SQL statement count, and cache and connection pool gauges
+     */
+    @Test
+    public void prometheusEndpointExposesRequestMetrics() throws IOException, InterruptedException {
+        HttpRequest messageRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        webClient.send(messageRequest, HttpResponse.BodyHandlers.ofString());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/actuator/prometheus"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        String body = response.body();
+        Assertions.assertTrue(body.contains("http_server_requests_seconds_bucket{") && body.contains("uri=\"/messages/{messageId}\""),
+                "Expected a request histogram for /messages/{messageId}");
+        Assertions.assertTrue(body.contains("app_service_seconds_count{") && body.contains("method=\"getMessageById\""),
+                "Expected a service timer for getMessageById");
+        Assertions.assertTrue(body.contains("app_db_queries_count{"), "Expected a per-request query count");
+        Assertions.assertTrue(body.contains("cache_gets_total{cache=\"messages\"") && body.contains("cache_gets_total{cache=\"feedTimelines\""),
+                "Expected cache metrics");
+        Assertions.assertTrue(body.contains("hikaricp_connections_active"), "Expected connection pool metrics");
+    }
+}
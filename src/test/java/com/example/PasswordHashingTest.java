@@ -0,0 +1,195 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.entity.Account;
+import com.example.service.AccountService;
+import com.example.service.PasswordHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Passwords are stored as PBKDF2 hashes, plain passwords from before hashing are migrated on login,
+ * and a full hashing queue turns away logins instead of tying up request threads.
+ */
+public class PasswordHashingTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the app with the given arguments.
+     * @throws InterruptedException
+     */
+    private void startApp(String... args) throws InterruptedException {
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Registering a user, then logging in with the right and a wrong password.
+     * 
+     * Expected Response:
+     *  Status Codes: 200, 200, 401
+     *  Response Body: the account with the submitted password; the database holds only its hash
+     */
+    @Test
+    public void registeredPasswordIsHashed() throws IOException, InterruptedException {
+        startApp();
+        HttpResponse<String> response = post("/register", "{\"username\":\"hasheduser\",\"password\":\"secret1\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Account registered = objectMapper.readValue(response.body(), Account.class);
+        Assertions.assertEquals("secret1", registered.getPassword());
+
+        String stored = storedPassword("hasheduser");
+        Assertions.assertTrue(stored.startsWith("$pbkdf2-sha256$"), "Stored: " + stored);
+        Assertions.assertFalse(stored.contains("secret1"));
+
+        response = post("/login", "{\"username\":\"hasheduser\",\"password\":\"secret1\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(registered, objectMapper.readValue(response.body(), Account.class));
+
+        response = post("/login", "{\"username\":\"hasheduser\",\"password\":\"secret2\"}");
+        Assertions.assertEquals(401, response.statusCode());
+    }
+
+    /**
+     * Logging in as a seeded user whose password is stored in plain text, then with a changed cost.
+     * 
+     * Expected Response:
+     *  Status Code: 200 each time
+     *  Database: the plain password is replaced by a hash, which is replaced again when the cost changes
+     */
+    @Test
+    public void loginRehashesOutdatedPasswords() throws IOException, InterruptedException {
+        startApp("--app.passwords.iterations=1000");
+        Assertions.assertEquals("password", storedPassword("testuser1"));
+        HttpResponse<String> response = post("/login", "{\"username\":\"testuser1\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(new Account(9999, "testuser1", "password"), objectMapper.readValue(response.body(), Account.class));
+        String stored = storedPassword("testuser1");
+        Assertions.assertTrue(stored.startsWith("$pbkdf2-sha256$1000$"), "Stored: " + stored);
+
+        response = post("/login", "{\"username\":\"testuser1\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(stored, storedPassword("testuser1"));
+    }
+
+    /**
+     * Logging in as a seeded user whose password is stored in plain text while the hashing pool
+     * turns away the rehash.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Database: the plain password is kept, to be rehashed on a later login
+     */
+    @Test
+    public void loginSucceedsWhenRehashIsRejected() throws IOException, InterruptedException {
+        startApp();
+        PasswordHasher rejectingHashes = new PasswordHasher(1000, 1, 1) {
+            @Override
+            public CompletableFuture<String> hashAsync(String password) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Hashing queue full"));
+            }
+        };
+        AccountService accounts = AopTestUtils.getTargetObject(app.getBean(AccountService.class));
+        ReflectionTestUtils.setField(accounts, "passwordHasher", rejectingHashes);
+        try {
+            HttpResponse<String> response = post("/login", "{\"username\":\"testuser1\",\"password\":\"password\"}");
+            Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+            Assertions.assertEquals(new Account(9999, "testuser1", "password"), objectMapper.readValue(response.body(), Account.class));
+            Assertions.assertEquals("password", storedPassword("testuser1"));
+        } finally {
+            rejectingHashes.shutdown();
+        }
+    }
+
+    /**
+     * Logging in as a seeded user whose stored hash is malformed, in several ways.
+     * 
+     * Expected Response:
+     *  Status Code: 401 each time
+     */
+    @Test
+    public void malformedStoredHashFailsLogin() throws IOException, InterruptedException {
+        startApp();
+        String[] malformed = {"$pbkdf2-sha256$many$c2FsdA$aGFzaA", "$pbkdf2-sha256$1000$not base64!$aGFzaA",
+                "$pbkdf2-sha256$0$c2FsdA$aGFzaA", "$pbkdf2-sha256$1000$$aGFzaA", "$pbkdf2-sha256$1000"};
+        for (String stored : malformed) {
+            app.getBean(JdbcTemplate.class).update("update account set password = ? where username = 'testuser1'", stored);
+            app.getBean(CacheManager.class).getCache(AccountService.ACCOUNT_CACHE).clear();
+            HttpResponse<String> response = post("/login", "{\"username\":\"testuser1\",\"password\":\"password\"}");
+            Assertions.assertEquals(401, response.statusCode(), "Stored: " + stored);
+        }
+    }
+
+    /**
+     * Sending many logins at once to one hashing thread with room for one queued task.
+     * 
+     * Expected Response:
+     *  Status Codes: 200 for the logins that were verified, 503 for the rest
+     */
+    @Test
+    public void fullHashingQueueReturns503() throws InterruptedException {
+        startApp("--app.passwords.threads=1", "--app.passwords.queue-capacity=1");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/login"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"testuser1\",\"password\":\"password\"}"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            responses.add(webClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        int ok = 0;
+        int busy = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int status = response.join().statusCode();
+            if (status == 200) {
+                ok++;
+            } else if (status == 503) {
+                busy++;
+            }
+        }
+        Assertions.assertEquals(10, ok + busy, "Expected only 200 and 503 responses");
+        Assertions.assertTrue(ok >= 1, "Expected at least one login to succeed");
+        Assertions.assertTrue(busy >= 1, "Expected at least one login to be turned away");
+    }
+
+    private String storedPassword(String username) {
+        return app.getBean(JdbcTemplate.class)
+                .queryForObject("select password from account where username = ?", String.class, username);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Query budgets of the endpoints. The app runs with app.query-budget.mode=fail, so a request over the
+ * configured budget returns 500, and each test also pins the statement and row counts it expects, so
+ * a change that adds queries to an endpoint fails here.
+ */
+public class QueryBudgetTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+
+    /**
+     * Starts the app in fail mode with query count headers, plus the given arguments.
+     * @throws InterruptedException
+     */
+    private void startApp(String... args) throws InterruptedException {
+        String[] failMode = new String[] {"--app.query-budget.mode=fail", "--app.query-budget.expose-headers=true"};
+        String[] allArgs = new String[failMode.length + args.length];
+        System.arraycopy(failMode, 0, allArgs, 0, failMode.length);
+        System.arraycopy(args, 0, allArgs, failMode.length, args.length);
+        app = SpringApplication.run(SocialMediaApp.class, allArgs);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Reads each endpoint once.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Headers: X-Query-Count and X-Rows-Read within each endpoint's budget; a cached read runs no query
+     */
+    @Test
+    public void readEndpointsStayWithinBudget() throws IOException, InterruptedException {
+        startApp();
+        assertBudget(get("/messages/9999"), 1, 1);
+        assertBudget(get("/messages/9999"), 0, 0);
+        assertBudget(get("/messages"), 1, 3);
+        assertBudget(get("/messages?limit=2"), 1, 3);
+        assertBudget(get("/accounts/9999/messages"), 1, 1);
+        assertBudget(get("/accounts/9999/messages?limit=2"), 1, 1);
+        assertBudget(get("/messages?since=1669947792&limit=2"), 1, 3);
+        assertBudget(get("/accounts/9999/messages?since=1669947792&limit=2"), 1, 1);
+        assertBudget(get("/accounts/9999/feed"), 3, 2);
+        assertBudget(get("/trending"), 0, 0);
+        assertBudget(send("POST", "/login", "{\"username\":\"testuser1\",\"password\":\"password\"}"), 1, 1);
+    }
+
+    /**
+     * Writes through each endpoint once.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Headers: X-Query-Count and X-Rows-Read within each endpoint's budget
+     */
+    @Test
+    public void writeEndpointsStayWithinBudget() throws IOException, InterruptedException {
+        startApp();
+        assertBudget(send("POST", "/register", "{\"username\":\"budgetuser\",\"password\":\"password\"}"), 3, 2);
+        assertBudget(send("POST", "/messages?userId=9999",
+                "{\"postedBy\":9999,\"messageText\":\"hello\",\"timePostedEpoch\":1669947792}"), 5, 3);
+        assertBudget(send("POST", "/messages?userId=9999",
+                "{\"postedBy\":9999,\"messageText\":\"#a #b @c @d\",\"timePostedEpoch\":1669947792}"), 5, 3);
+        assertBudget(send("POST", "/messages/batch",
+                "[{\"postedBy\":9999,\"messageText\":\"a\",\"timePostedEpoch\":1669947792},"
+                        + "{\"postedBy\":9998,\"messageText\":\"b\",\"timePostedEpoch\":1669947792}]"), 6, 5);
+        assertBudget(send("PATCH", "/messages/9997", "{\"messageText\":\"updated\"}"), 2, 1);
+        assertBudget(send("DELETE", "/messages/9996", null), 2, 1);
+        assertBudget(send("POST", "/accounts/9998/following/9999", null), 4, 2);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages with a budget of one row for that endpoint
+     * 
+     * Expected Response:
+     *  Status Code: 500
+     *  Response Body: the exceeded limit
+     */
+    @Test
+    public void requestOverBudgetFails() throws IOException, InterruptedException {
+        startApp("--app.query-budget.endpoints.getAllMessages.max-rows=1");
+        HttpResponse<String> response = get("/messages");
+        int status = response.statusCode();
+        Assertions.assertEquals(500, status, "Expected Status Code 500 - Actual Code was: " + status);
+        Assertions.assertTrue(response.body().contains("3 rows read, limit 1"), "Actual body: " + response.body());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void assertBudget(HttpResponse<String> response, int maxStatements, int maxRows) {
+        String target = response.request().method() + " " + response.uri().getPath();
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, target + ": Expected Status Code 200 - Actual Code was: " + status
+                + ", body: " + response.body());
+        int statements = Integer.parseInt(response.headers().firstValue("X-Query-Count").orElse("-1"));
+        long rows = Long.parseLong(response.headers().firstValue("X-Rows-Read").orElse("-1"));
+        Assertions.assertTrue(statements >= 0 && statements <= maxStatements,
+                target + ": expected at most " + maxStatements + " statements, was " + statements);
+        Assertions.assertTrue(rows >= 0 && rows <= maxRows,
+                target + ": expected at most " + maxRows + " rows read, was " + rows);
+    }
+}
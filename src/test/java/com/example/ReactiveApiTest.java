@@ -0,0 +1,234 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.SearchPage;
+import com.example.dto.TimeRangePage;
+import com.example.dto.TrendingTopic;
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.service.MessageService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The WebFlux + R2DBC variant of the API, started with the "reactive" profile. It must answer every
+ * route with the same status codes and bodies as the servlet controller.
+ */
+public class ReactiveApiTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app with the reactive profile, and create a
+     * new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--spring.profiles.active=reactive"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Registering a new user, registering the same username again, then logging in with the right
+     * and a wrong password.
+     * 
+     * Expected Response:
+     *  Status Codes: 200, 409, 200, 401
+     */
+    @Test
+    public void registerAndLogin() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", "/register", "{\"username\":\"reactiveuser\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        Account registered = objectMapper.readValue(response.body(), Account.class);
+        Assertions.assertEquals("reactiveuser", registered.getUsername());
+
+        response = send("POST", "/register", "{\"username\":\"reactiveuser\",\"password\":\"password\"}");
+        Assertions.assertEquals(409, response.statusCode());
+
+        response = send("POST", "/login", "{\"username\":\"reactiveuser\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(registered, objectMapper.readValue(response.body(), Account.class));
+
+        response = send("POST", "/login", "{\"username\":\"reactiveuser\",\"password\":\"wrong\"}");
+        Assertions.assertEquals(401, response.statusCode());
+    }
+
+    /**
+     * Creating a message, reading it back by ID and by account, rejecting one from an unknown user,
+     * then posting a hashtag and reading the trending topics.
+     * 
+     * Expected Response:
+     *  Status Codes: 200 for the existing user, 400 for the unknown one
+     */
+    @Test
+    public void createAndReadMessage() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", "/messages?userId=9999",
+                "{\"postedBy\":9999,\"messageText\":\"hello reactive\",\"timePostedEpoch\":1669947792}");
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        Message created = objectMapper.readValue(response.body(), Message.class);
+        Assertions.assertEquals(new Message(created.getMessageId(), 9999, "hello reactive", 1669947792L), created);
+
+        response = send("GET", "/messages/" + created.getMessageId(), null);
+        Assertions.assertEquals(created, objectMapper.readValue(response.body(), Message.class));
+
+        response = send("GET", "/accounts/9999/messages", null);
+        List<Message> byAccount = objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+        Assertions.assertTrue(byAccount.contains(created), "Actual: " + byAccount);
+
+        response = send("POST", "/messages?userId=5050",
+                "{\"postedBy\":5050,\"messageText\":\"hello\",\"timePostedEpoch\":1669947792}");
+        Assertions.assertEquals(400, response.statusCode());
+
+        response = send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"#reactive\",\"timePostedEpoch\":1669947792}");
+        Assertions.assertEquals(200, response.statusCode());
+        response = send("GET", "/trending", null);
+        Assertions.assertEquals(List.of(new TrendingTopic("reactive", 1)),
+                objectMapper.readValue(response.body(), new TypeReference<List<TrendingTopic>>(){}));
+    }
+
+    /**
+     * Listing all messages as a JSON array, as newline-delimited JSON, as a page and as an export.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the seeded messages in message ID order
+     */
+    @Test
+    public void listMessages() throws IOException, InterruptedException {
+        List<Message> expectedResult = new ArrayList<Message>();
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+
+        HttpResponse<String> response = send("GET", "/messages", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(expectedResult, objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){}));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Accept", "application/x-ndjson")
+                .build();
+        response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(expectedResult, readLines(response.body()));
+
+        response = send("GET", "/messages/export", null);
+        Assertions.assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        Assertions.assertEquals(expectedResult, readLines(response.body()));
+
+        response = send("GET", "/messages?limit=2", null);
+        Assertions.assertTrue(response.body().contains("\"nextCursor\":9997"), "Actual body: " + response.body());
+        response = send("GET", "/messages?limit=0", null);
+        Assertions.assertEquals(400, response.statusCode());
+
+        response = send("GET", "/messages?since=1669947792&limit=2", null);
+        Assertions.assertEquals(200, response.statusCode());
+        TimeRangePage page = objectMapper.readValue(response.body(), TimeRangePage.class);
+        Assertions.assertEquals(List.of(expectedResult.get(2), expectedResult.get(1)), page.getMessages());
+        Assertions.assertEquals(9997, page.getNextCursor());
+        response = send("GET", "/messages?since=1669947792&until=1669947792&before=9997", null);
+        Assertions.assertEquals(List.of(expectedResult.get(0)),
+                objectMapper.readValue(response.body(), TimeRangePage.class).getMessages());
+        response = send("GET", "/messages?since=2&until=1", null);
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    /**
+     * Updating a message with valid and blank text, then deleting it twice.
+     * 
+     * Expected Response:
+     *  Update: 200 with 1, then 400 with 0
+     *  Delete: 200 with 1, then 200 with an empty body
+     *  Search: the updated text is found until the message is deleted
+     *  JPA reads: the message cached by MessageService is replaced after the update and gone after the deletion
+     */
+    @Test
+    public void updateAndDeleteMessage() throws IOException, InterruptedException {
+        MessageService messageService = app.getBean(MessageService.class);
+        Assertions.assertEquals("test message 1", messageService.getMessageById(9999).getMessageText());
+
+        HttpResponse<String> response = send("PATCH", "/messages/9999", "{\"messageText\":\"updated\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("1", response.body());
+        Assertions.assertEquals("updated", messageService.getMessageById(9999).getMessageText());
+        response = send("GET", "/messages/9999", null);
+        Assertions.assertEquals("updated", objectMapper.readValue(response.body(), Message.class).getMessageText());
+        response = send("GET", "/messages/search?q=updated", null);
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "updated", 1669947792L)),
+                objectMapper.readValue(response.body(), SearchPage.class).getMessages());
+
+        response = send("PATCH", "/messages/9999", "{\"messageText\":\"\"}");
+        Assertions.assertEquals(400, response.statusCode());
+        Assertions.assertEquals("0", response.body());
+
+        response = send("DELETE", "/messages/9999", null);
+        Assertions.assertEquals("1", response.body());
+        response = send("DELETE", "/messages/9999", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("", response.body());
+        response = send("GET", "/messages/9999", null);
+        Assertions.assertEquals("", response.body());
+        Assertions.assertNull(messageService.getMessageById(9999));
+        response = send("GET", "/messages/search?q=updated", null);
+        Assertions.assertEquals(0, objectMapper.readValue(response.body(), SearchPage.class).getTotal());
+    }
+
+    /**
+     * Starting a second app with the reactive and sharding profiles.
+     *
+     * Expected Response:
+     *  Startup fails, naming the profiles that cannot be combined
+     */
+    @Test
+    public void cannotBeCombinedWithSharding() {
+        Exception e = Assertions.assertThrows(Exception.class, () -> SpringApplication.run(SocialMediaApp.class,
+                "--spring.profiles.active=reactive,sharding", "--server.port=0"));
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        Assertions.assertInstanceOf(IllegalStateException.class, cause);
+        Assertions.assertTrue(cause.getMessage().contains("cannot be combined with the sharding"), cause.getMessage());
+    }
+
+    private List<Message> readLines(String body) throws IOException {
+        List<Message> messages = new ArrayList<Message>();
+        for (String line : body.split("\n")) {
+            messages.add(objectMapper.readValue(line, Message.class));
+        }
+        return messages;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.example.replication.ReplicationLsnAdvice;
+import com.example.replication.SimulatedReplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The "replication" profile: reads from a replica one second behind the primary, and
+ * read-your-writes through the LSN header.
+ */
+public class ReplicationTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--spring.profiles.active=replication", "--app.replication.lag=1s",
+                "--app.passwords.iterations=1000"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        SimulatedReplication replication = app.getBean(SimulatedReplication.class);
+        while (replication.getAppliedLsn() < replication.getLastLsn()) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Posts a message, then reads it back at once with and without the returned LSN, and again
+     * after the replication lag.
+     *
+     * Expected Response:
+     *  Status Code: 200 with an X-Replication-LSN header for the post
+     *  Response Body: empty without the LSN until the replica has caught up, and left out of search
+     *  results; the message with it
+     */
+    @Test
+    public void postedMessageIsReadWithLsnBeforeReplicaCatchesUp() throws IOException, InterruptedException {
+        HttpResponse<String> posted = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"postedBy\":9999,\"messageText\":\"replicated\",\"timePostedEpoch\":1669947800}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, posted.statusCode(), "Actual body: " + posted.body());
+        Message message = objectMapper.readValue(posted.body(), Message.class);
+        String lsn = posted.headers().firstValue(ReplicationLsnAdvice.LSN_HEADER).orElse(null);
+        Assertions.assertNotNull(lsn);
+        String path = "/messages/" + message.getMessageId();
+
+        Assertions.assertEquals("", get(path, null).body(), "The replica should not have the message yet");
+        Assertions.assertEquals(message, objectMapper.readValue(get(path, lsn).body(), Message.class));
+        Assertions.assertTrue(get("/accounts/9999/messages", lsn).body().contains("\"replicated\""));
+        Assertions.assertFalse(get("/messages/search?q=replicated", null).body().contains("\"replicated\""),
+                "Search should read from the replica");
+        Assertions.assertTrue(get("/messages/search?q=replicated", lsn).body().contains("\"replicated\""));
+
+        Thread.sleep(1500);
+        Assertions.assertEquals(message, objectMapper.readValue(get(path, null).body(), Message.class));
+    }
+
+    /**
+     * Registers an account and logs in at once, without and with the LSN of the registration.
+     *
+     * Expected Response:
+     *  Status Code: 401 without the LSN, the replica not having the account yet; 200 with it
+     */
+    @Test
+    public void loginWithLsnSeesNewAccount() throws IOException, InterruptedException {
+        String credentials = "{\"username\":\"replicated\",\"password\":\"password\"}";
+        HttpResponse<String> registered = send("/register", credentials, null);
+        Assertions.assertEquals(200, registered.statusCode(), "Actual body: " + registered.body());
+        String lsn = registered.headers().firstValue(ReplicationLsnAdvice.LSN_HEADER).orElse(null);
+        Assertions.assertNotNull(lsn);
+
+        Assertions.assertEquals(401, send("/login", credentials, null).statusCode());
+        HttpResponse<String> login = send("/login", credentials, lsn);
+        Assertions.assertEquals(200, login.statusCode(), "Actual body: " + login.body());
+    }
+
+    private HttpResponse<String> get(String path, String lsn) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path));
+        if (lsn != null) {
+            request.header(ReplicationLsnAdvice.LSN_HEADER, lsn);
+        }
+        HttpResponse<String> response = webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        return response;
+    }
+
+    private HttpResponse<String> send(String path, String body, String lsn) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (lsn != null) {
+            request.header(ReplicationLsnAdvice.LSN_HEADER, lsn);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
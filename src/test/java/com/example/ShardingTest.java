@@ -0,0 +1,253 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessagePage;
+import com.example.dto.TimeRangePage;
+import com.example.entity.Message;
+import com.example.sharding.MessageShards;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The "sharding" profile: messages placed on shards by poster, reads merged across shards, and
+ * rebalancing when a shard is added.
+ */
+public class ShardingTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the app with one shard per database name, kept open between runs.
+     * @throws InterruptedException
+     */
+    private void startApp(List<String> databases, String... args) throws InterruptedException {
+        List<String> urls = new ArrayList<>();
+        for (String database : databases) {
+            urls.add(url(database));
+        }
+        List<String> allArgs = new ArrayList<>(List.of("--spring.profiles.active=sharding",
+                "--app.sharding.urls=" + String.join(",", urls)));
+        allArgs.addAll(Arrays.asList(args));
+        app = SpringApplication.run(SocialMediaApp.class, allArgs.toArray(new String[0]));
+        Thread.sleep(500);
+    }
+
+    private void stopApp() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+        app = null;
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (app != null) {
+            stopApp();
+        }
+    }
+
+    /**
+     * Posts messages as the four sample users over three shards, then reads, pages, updates and
+     * deletes them.
+     *
+     * Expected Response:
+     *  Database: each message only on its poster's shard, with an ID from that shard's range, every
+     *  message ID distinct
+     *  Response Body: GET /messages has every message in message ID order; account, time-range
+     *  and keyset reads see the same messages as with one database
+     */
+    @Test
+    public void messagesArePlacedByPosterAndReadAcrossShards() throws IOException, InterruptedException, SQLException {
+        List<String> databases = List.of("placed0", "placed1", "placed2");
+        startApp(databases);
+        List<Message> posted = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            posted.add(createMessage(9996 + i % 4, 2000 + i));
+        }
+        assertPlacedByPoster(databases, 11);
+        MessageShards shards = app.getBean(MessageShards.class);
+        for (Message message : posted) {
+            Assertions.assertEquals(shards.shardOf(message.getPostedBy()), shards.shardOfId(message.getMessageId()),
+                    "ID " + message.getMessageId() + " of a message by " + message.getPostedBy());
+        }
+
+        List<Message> all = getList("/messages");
+        Assertions.assertEquals(11, all.size());
+        Assertions.assertEquals(11, new HashSet<>(all).size());
+        for (int i = 1; i < all.size(); i++) {
+            Assertions.assertTrue(all.get(i - 1).getMessageId() < all.get(i).getMessageId());
+        }
+        Assertions.assertTrue(all.containsAll(posted));
+
+        List<Message> ofUser = getList("/accounts/9998/messages");
+        Assertions.assertEquals(List.of(posted.get(2), posted.get(6)), ofUser);
+
+        TimeRangePage recent = objectMapper.readValue(get("/messages?since=2003&until=2008&limit=3").body(), TimeRangePage.class);
+        Assertions.assertEquals(List.of(posted.get(7), posted.get(6), posted.get(5)), recent.getMessages());
+        recent = objectMapper.readValue(get("/messages?since=2003&until=" + recent.getNextUntil()
+                + "&before=" + recent.getNextCursor() + "&limit=3").body(), TimeRangePage.class);
+        Assertions.assertEquals(List.of(posted.get(4), posted.get(3)), recent.getMessages());
+
+        MessagePage page = objectMapper.readValue(get("/messages?limit=6").body(), MessagePage.class);
+        Assertions.assertEquals(all.subList(0, 6), page.getMessages());
+        page = objectMapper.readValue(get("/messages?limit=6&after=" + page.getNextCursor()).body(), MessagePage.class);
+        Assertions.assertEquals(all.subList(6, 11), page.getMessages());
+
+        Message message = posted.get(1);
+        Assertions.assertEquals(message, objectMapper.readValue(get("/messages/" + message.getMessageId()).body(), Message.class));
+        HttpResponse<String> updated = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/" + message.getMessageId()))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\":\"edited #sharded\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals("1", updated.body());
+        Assertions.assertEquals("edited #sharded",
+                objectMapper.readValue(get("/messages/" + message.getMessageId()).body(), Message.class).getMessageText());
+        HttpResponse<String> deleted = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/" + message.getMessageId()))
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals("1", deleted.body());
+        Assertions.assertEquals("", get("/messages/" + message.getMessageId()).body());
+        Assertions.assertEquals(10, getList("/messages").size());
+    }
+
+    /**
+     * Posts messages over two shards, then restarts with a third shard and the database kept.
+     *
+     * Expected Response:
+     *  Database: after the restart every message is on its poster's shard, and none was lost or copied
+     *  Headers: getting a moved message by ID has an X-Query-Count of 3, the shard that allocated
+     *  its ID and then the two others; any other message 1
+     */
+    @Test
+    public void addingShardMovesMessagesToIt() throws IOException, InterruptedException, SQLException {
+        startApp(List.of("grown0", "grown1"));
+        for (int i = 0; i < 8; i++) {
+            createMessage(9996 + i % 4, 2000 + i);
+        }
+        List<Message> before = getList("/messages");
+        stopApp();
+
+        List<String> databases = List.of("grown0", "grown1", "grown2");
+        startApp(databases, "--spring.sql.init.mode=never", "--app.query-budget.expose-headers=true");
+        assertPlacedByPoster(databases, before.size());
+        Assertions.assertEquals(before, getList("/messages"));
+        Assertions.assertEquals(3, getList("/accounts/9999/messages").size());
+        MessageShards shards = app.getBean(MessageShards.class);
+        int moved = 0;
+        for (Message message : before) {
+            HttpResponse<String> response = get("/messages/" + message.getMessageId());
+            Assertions.assertEquals(message, objectMapper.readValue(response.body(), Message.class));
+            boolean wasMoved = shards.shardOfId(message.getMessageId()) != shards.shardOf(message.getPostedBy());
+            moved += wasMoved ? 1 : 0;
+            Assertions.assertEquals(wasMoved ? "3" : "1", response.headers().firstValue("X-Query-Count").orElseThrow(),
+                    "Lookup of message " + message.getMessageId());
+        }
+        Assertions.assertTrue(moved > 0, "Expected some messages to move to the new shard");
+    }
+
+    /**
+     * Posts a message as each sample user over three shards, copies it with another text to the
+     * other shards, then gets it by ID.
+     *
+     * Expected Response:
+     *  Response Body: the message as stored on the shard that allocated its ID
+     *  Headers: X-Query-Count of 1, since no other shard is queried
+     */
+    @Test
+    public void messageIsReadFromTheShardThatAllocatedItsId() throws IOException, InterruptedException, SQLException {
+        List<String> databases = List.of("lookup0", "lookup1", "lookup2");
+        startApp(databases, "--app.query-budget.expose-headers=true");
+        MessageShards shards = app.getBean(MessageShards.class);
+        for (int postedBy = 9996; postedBy <= 9999; postedBy++) {
+            Message message = createMessage(postedBy, 2000);
+            for (int shard = 0; shard < databases.size(); shard++) {
+                if (shard != shards.shardOfId(message.getMessageId())) {
+                    try (Connection connection = DriverManager.getConnection(url(databases.get(shard)), "sa", "");
+                         Statement statement = connection.createStatement()) {
+                        statement.executeUpdate("insert into message values (" + message.getMessageId() + ", "
+                                + postedBy + ", 'copy on shard " + shard + "', 2000)");
+                    }
+                }
+            }
+            HttpResponse<String> response = get("/messages/" + message.getMessageId());
+            Assertions.assertEquals(message, objectMapper.readValue(response.body(), Message.class));
+            Assertions.assertEquals("1", response.headers().firstValue("X-Query-Count").orElseThrow(),
+                    "Lookup of a message posted by " + postedBy);
+        }
+    }
+
+    /**
+     * Checks that each shard holds only the messages of the posters that hash to it.
+     */
+    private void assertPlacedByPoster(List<String> databases, int expectedMessages) throws SQLException {
+        MessageShards shards = app.getBean(MessageShards.class);
+        Set<Integer> ids = new HashSet<>();
+        for (int shard = 0; shard < databases.size(); shard++) {
+            Map<Integer, Integer> posters = new HashMap<>();
+            try (Connection connection = DriverManager.getConnection(url(databases.get(shard)), "sa", "");
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("select messageId, postedBy from message")) {
+                while (rows.next()) {
+                    Assertions.assertTrue(ids.add(rows.getInt(1)), "Duplicate ID " + rows.getInt(1));
+                    posters.put(rows.getInt(1), rows.getInt(2));
+                }
+            }
+            for (int poster : posters.values()) {
+                Assertions.assertEquals(shard, shards.shardOf(poster), "Message of " + poster + " on shard " + shard);
+            }
+        }
+        Assertions.assertEquals(expectedMessages, ids.size());
+    }
+
+    private static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private Message createMessage(int postedBy, long timePostedEpoch) throws IOException, InterruptedException {
+        HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":" + postedBy
+                        + ",\"messageText\":\"posted at " + timePostedEpoch + "\",\"timePostedEpoch\":" + timePostedEpoch + "}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+
+    private List<Message> getList(String path) throws IOException, InterruptedException {
+        return objectMapper.readValue(get(path).body(), new TypeReference<List<Message>>() {});
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), path + ": " + response.body());
+        return response;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.TimeRangePage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TimeRangeQueryTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Posts messages at several times, two of them at the same second, then pages through
+     * GET /messages?since=1000&until=3000&limit=2 by passing nextUntil and nextCursor back.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the messages in [1000, 3000), newest first and ties by descending message ID,
+     *  split across two pages with no message repeated or skipped
+     */
+    @Test
+    public void pagesThroughTimeRangeNewestFirst() throws IOException, InterruptedException {
+        Message at1000 = createMessage(9999, 1000);
+        Message first2000 = createMessage(9999, 2000);
+        Message second2000 = createMessage(9999, 2000);
+        Message at2500 = createMessage(9998, 2500);
+        createMessage(9999, 3000);
+
+        TimeRangePage page = getPage("/messages?since=1000&until=3000&limit=2");
+        Assertions.assertEquals(List.of(at2500, second2000), page.getMessages());
+        Assertions.assertEquals(2000L, page.getNextUntil());
+        Assertions.assertEquals(second2000.getMessageId(), page.getNextCursor());
+
+        page = getPage("/messages?since=1000&until=" + page.getNextUntil() + "&before=" + page.getNextCursor() + "&limit=2");
+        Assertions.assertEquals(List.of(first2000, at1000), page.getMessages());
+        Assertions.assertNull(page.getNextUntil());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    /**
+     * Posts messages from two users, then reads one user's messages posted since 2000.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: only that user's messages from 2000 on, including the seeded one, newest first
+     */
+    @Test
+    public void getsOneUsersMessagesInTimeRange() throws IOException, InterruptedException {
+        createMessage(9999, 1000);
+        Message at2000 = createMessage(9999, 2000);
+        createMessage(9998, 2500);
+        Message at3000 = createMessage(9999, 3000);
+
+        TimeRangePage page = getPage("/accounts/9999/messages?since=2000");
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "test message 1", 1669947792L), at3000, at2000),
+                page.getMessages());
+        Assertions.assertNull(page.getNextCursor());
+
+        page = getPage("/accounts/9999/messages?until=2000");
+        Assertions.assertEquals(1, page.getMessages().size());
+        Assertions.assertEquals(1000L, page.getMessages().get(0).getTimePostedEpoch());
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/messages with a reversed range, a cursor without
+     * until, or an invalid limit
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void timeRangeRejectsInvalidParameters() throws IOException, InterruptedException {
+        for (String query : List.of("/messages?since=2000&until=1000", "/messages?before=9999",
+                "/messages?since=1000&limit=0", "/accounts/9999/messages?since=1000&limit=501")) {
+            HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080" + query))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(400, status, "Expected Status Code 400 for " + query + " - Actual Code was: " + status);
+        }
+    }
+
+    private Message createMessage(int postedBy, long timePostedEpoch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":" + postedBy
+                        + ",\"messageText\":\"posted at " + timePostedEpoch + "\",\"timePostedEpoch\":" + timePostedEpoch + "}"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+
+    private TimeRangePage getPage(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, path + ": Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body(), TimeRangePage.class);
+    }
+}
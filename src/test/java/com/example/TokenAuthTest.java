@@ -0,0 +1,157 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Session tokens: /login issues one in the X-Auth-Token header, POST /messages accepts it as a
+ * bearer token instead of the userId parameter, and /logout revokes it.
+ */
+public class TokenAuthTest {
+	ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the app with a low password hashing cost, plus the given arguments.
+     * @throws InterruptedException
+     */
+    private void startApp(String... args) throws InterruptedException {
+        String[] allArgs = new String[args.length + 1];
+        allArgs[0] = "--app.passwords.iterations=1000";
+        System.arraycopy(args, 0, allArgs, 1, args.length);
+        app = SpringApplication.run(SocialMediaApp.class, allArgs);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Logging in, then posting with the issued token and no userId.
+     * 
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the message, posted by the token's account
+     */
+    @Test
+    public void createMessageWithToken() throws IOException, InterruptedException {
+        startApp();
+        String token = login();
+        HttpResponse<String> response = postMessage("Bearer " + token, "{\"messageText\":\"hello token\",\"timePostedEpoch\":1669947792}");
+        Assertions.assertEquals(200, response.statusCode(), "Actual body: " + response.body());
+        Message message = objectMapper.readValue(response.body(), Message.class);
+        Assertions.assertEquals(9999, message.getPostedBy());
+        Assertions.assertEquals("hello token", message.getMessageText());
+    }
+
+    /**
+     * Posting with a token as another account, with a tampered token and without any credentials.
+     * 
+     * Expected Response:
+     *  Status Codes: 400, 401, 400
+     */
+    @Test
+    public void createMessageRejectsBadCredentials() throws IOException, InterruptedException {
+        startApp();
+        String token = login();
+        HttpResponse<String> response = postMessage("Bearer " + token, "{\"postedBy\":9997,\"messageText\":\"hello\"}");
+        Assertions.assertEquals(400, response.statusCode());
+
+        String tampered = "9997" + token.substring(token.indexOf('.'));
+        response = postMessage("Bearer " + tampered, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(401, response.statusCode());
+
+        response = postMessage(null, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    /**
+     * Logging out, then posting with the revoked token and logging out again.
+     * 
+     * Expected Response:
+     *  Status Codes: 200, 401, 401
+     */
+    @Test
+    public void logoutRevokesToken() throws IOException, InterruptedException {
+        startApp();
+        String token = login();
+        HttpResponse<String> response = send("/logout", "Bearer " + token, "");
+        Assertions.assertEquals(200, response.statusCode());
+        response = postMessage("Bearer " + token, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(401, response.statusCode());
+        response = send("/logout", "Bearer " + token, "");
+        Assertions.assertEquals(401, response.statusCode());
+    }
+
+    /**
+     * Logging out two sessions with room for one revocation, then posting with both tokens.
+     * 
+     * Expected Response:
+     *  Status Codes: 401, 401
+     */
+    @Test
+    public void tokenEvictedFromFullRevocationCacheStaysRevoked() throws IOException, InterruptedException {
+        startApp("--app.tokens.max-revoked=1");
+        String first = login();
+        String second = login();
+        Assertions.assertEquals(200, send("/logout", "Bearer " + first, "").statusCode());
+        Assertions.assertEquals(200, send("/logout", "Bearer " + second, "").statusCode());
+        Thread.sleep(500);
+        HttpResponse<String> response = postMessage("Bearer " + first, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(401, response.statusCode());
+        response = postMessage("Bearer " + second, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(401, response.statusCode());
+    }
+
+    /**
+     * Posting with a token after it expired.
+     * 
+     * Expected Response:
+     *  Status Code: 401
+     */
+    @Test
+    public void expiredTokenIsRejected() throws IOException, InterruptedException {
+        startApp("--app.tokens.ttl=1s");
+        String token = login();
+        Thread.sleep(2000);
+        HttpResponse<String> response = postMessage("Bearer " + token, "{\"messageText\":\"hello\"}");
+        Assertions.assertEquals(401, response.statusCode());
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("/login", null, "{\"username\":\"testuser1\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        return response.headers().firstValue("X-Auth-Token").orElseThrow();
+    }
+
+    private HttpResponse<String> postMessage(String authorization, String body) throws IOException, InterruptedException {
+        return send("/messages", authorization, body);
+    }
+
+    private HttpResponse<String> send(String path, String authorization, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
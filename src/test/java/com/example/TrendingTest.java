@@ -0,0 +1,129 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.dto.TrendingTopic;
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TrendingTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Posts messages with hashtags and mentions, singly and in a batch, then reads GET /trending.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: hashtags (case-insensitive) and mentions, most used first, with their counts
+     */
+    @Test
+    public void trendingCountsHashtagsAndMentions() throws IOException, InterruptedException {
+        Message first = createMessage("Learning #Java and #Spring with @testuser2");
+        createMessage("more #java, emailing bob@example.com about a#b");
+        send("POST", "/messages/batch",
+                "[{\"postedBy\":9998,\"messageText\":\"#java again, thanks @testuser2.\",\"timePostedEpoch\":1669947800}]");
+
+        Assertions.assertEquals(List.of(new TrendingTopic("java", 3), new TrendingTopic("spring", 1)), getTrending(""));
+        Assertions.assertEquals(List.of(new TrendingTopic("java", 3)), getTrending("?limit=1"));
+        Assertions.assertEquals(List.of(new TrendingTopic("testuser2", 2)), getTrending("?type=mentions"));
+
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        Assertions.assertEquals(List.of("java", "spring"), jdbc.queryForList(
+                "select tag from message_hashtag where messageId = ? order by tag", String.class, first.getMessageId()));
+        Assertions.assertEquals(List.of("testuser2"), jdbc.queryForList(
+                "select username from message_mention where messageId = ?", String.class, first.getMessageId()));
+    }
+
+    /**
+     * Updates a message's hashtags twice, then deletes it.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: stored tags follow the text, and a tag kept by an edit is counted once
+     */
+    @Test
+    public void updatesReplaceTagsAndDeletesRemoveThem() throws IOException, InterruptedException {
+        send("PATCH", "/messages/9999", "{\"messageText\":\"now #kotlin\"}");
+        send("PATCH", "/messages/9999", "{\"messageText\":\"#kotlin and #java\"}");
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        Assertions.assertEquals(List.of("java", "kotlin"), jdbc.queryForList(
+                "select tag from message_hashtag where messageId = 9999 order by tag", String.class));
+        Assertions.assertEquals(List.of(new TrendingTopic("java", 1), new TrendingTopic("kotlin", 1)), getTrending(""));
+
+        send("DELETE", "/messages/9999", null);
+        Assertions.assertEquals(0, jdbc.queryForObject(
+                "select count(*) from message_hashtag where messageId = 9999", Integer.class));
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/trending with an unknown type or an invalid limit
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void trendingRejectsInvalidParameters() throws IOException, InterruptedException {
+        for (String query : List.of("?type=words", "?limit=0", "?limit=101")) {
+            HttpResponse<String> response = webClient.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/trending" + query))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(400, status, "Expected Status Code 400 for " + query + " - Actual Code was: " + status);
+        }
+    }
+
+    private Message createMessage(String text) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", "/messages",
+                "{\"postedBy\":9999,\"messageText\":\"" + text + "\",\"timePostedEpoch\":1669947800}");
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+
+    private List<TrendingTopic> getTrending(String query) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/trending" + query, null);
+        return objectMapper.readValue(response.body(), new TypeReference<List<TrendingTopic>>() {});
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, method + " " + path + ": Expected Status Code 200 - Actual Code was: " + status
+                + ", body: " + response.body());
+        return response;
+    }
+}
@@ -104,4 +104,35 @@ public class UserLoginTest {
         int status = response.statusCode();
         Assertions.assertEquals(401, status, "Expected Status Code 401 - Actual Code was: " + status);
     }
+
+    /**
+     * Sending an http request to POST localhost:8080/login for an unknown username, then registering that
+     * username and logging in again
+     * 
+     * Expected Response:
+     * 	Status Code: 401 before registration, 200 after registration
+     */
+    @Test
+    public void loginAfterRegistration() throws IOException, InterruptedException {
+    	String json = "{\"username\":\"newuser\",\"password\":\"password\"}";
+        HttpRequest loginRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpRequest registerRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/register"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(loginRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(401, response.statusCode(), "Expected Status Code 401 - Actual Code was: " + response.statusCode());
+        response = webClient.send(registerRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(), "Expected Status Code 200 - Actual Code was: " + response.statusCode());
+        response = webClient.send(loginRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Account actualResult = objectMapper.readValue(response.body().toString(), Account.class);
+        Assertions.assertEquals("newuser", actualResult.getUsername());
+    }
 }
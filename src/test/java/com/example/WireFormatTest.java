@@ -0,0 +1,177 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessageBatchResult;
+import com.example.entity.Message;
+import com.example.wire.MessageColumns;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Content negotiation between JSON, Smile, CBOR and the columnar message list encoding.
+ */
+public class WireFormatTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    ObjectMapper smileMapper = new SmileMapper();
+    ObjectMapper cborMapper = new CBORMapper();
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages, /messages/9999 and /accounts/9999/messages with an Accept
+     * header for each format.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the same messages as the JSON response, in the requested format
+     */
+    @Test
+    public void messagesAreSentInRequestedFormat() throws IOException, InterruptedException {
+        TypeReference<List<Message>> messageList = new TypeReference<List<Message>>() {};
+        List<Message> all = objectMapper.readValue(get("/messages", "application/json").body(), messageList);
+        Assertions.assertEquals(3, all.size());
+
+        Assertions.assertEquals(all, smileMapper.readValue(get("/messages", "application/x-jackson-smile").body(), messageList));
+        Assertions.assertEquals(all, cborMapper.readValue(get("/messages", "application/cbor").body(), messageList));
+        HttpResponse<byte[]> columns = get("/messages", MessageColumns.MEDIA_TYPE);
+        Assertions.assertEquals(all, MessageColumns.decode(columns.body(), 1000));
+        Assertions.assertEquals(String.valueOf(columns.body().length), columns.headers().firstValue("Content-Length").orElseThrow());
+
+        Message message = new Message(9999, 9999, "test message 1", 1669947792L);
+        Assertions.assertEquals(message, cborMapper.readValue(get("/messages/9999", "application/cbor").body(), Message.class));
+        Assertions.assertEquals(List.of(message), MessageColumns.decode(get("/accounts/9999/messages", MessageColumns.MEDIA_TYPE).body(), 1000));
+    }
+
+    /**
+     * Sending POST localhost:8080/messages with a Smile body, and POST /messages/batch with a
+     * columnar body and a CBOR body.
+     *
+     * Expected Response:
+     *  Status Code: 200 with the created messages; 400 for a truncated columnar body
+     */
+    @Test
+    public void messagesAreReadInSentFormat() throws IOException, InterruptedException {
+        Message posted = new Message(9999, "sent as smile", 1669947800L);
+        HttpResponse<byte[]> created = post("/messages", "application/x-jackson-smile", smileMapper.writeValueAsBytes(posted));
+        Assertions.assertEquals(200, created.statusCode());
+        Assertions.assertEquals("sent as smile", objectMapper.readValue(created.body(), Message.class).getMessageText());
+
+        byte[] batch = MessageColumns.encode(List.of(new Message(9999, "first", 1669947801L),
+                new Message(9998, "second", null)));
+        HttpResponse<byte[]> results = post("/messages/batch", MessageColumns.MEDIA_TYPE, batch);
+        Assertions.assertEquals(200, results.statusCode());
+        List<MessageBatchResult> accepted = objectMapper.readValue(results.body(), new TypeReference<List<MessageBatchResult>>() {});
+        Assertions.assertEquals(2, accepted.size());
+        Assertions.assertEquals("second", accepted.get(1).getMessage().getMessageText());
+        Assertions.assertNull(accepted.get(1).getMessage().getTimePostedEpoch());
+
+        Message[] cbor = new Message[] {new Message(9997, "sent as cbor", 1669947802L)};
+        Assertions.assertEquals(200, post("/messages/batch", "application/cbor", cborMapper.writeValueAsBytes(cbor)).statusCode());
+
+        byte[] truncated = Arrays.copyOf(batch, batch.length - 1);
+        Assertions.assertEquals(400, post("/messages/batch", MessageColumns.MEDIA_TYPE, truncated).statusCode());
+    }
+
+    /**
+     * Sending GET localhost:8080/trending and GET /messages?limit=2, and POST /messages/batch, with
+     * Accept: application/x-message-columns.
+     *
+     * Expected Response:
+     *  Status Code: 406, since none of them returns a message list
+     */
+    @Test
+    public void messageColumnsAreOnlySentForMessageLists() throws IOException, InterruptedException {
+        Assertions.assertEquals(406, send(HttpRequest.newBuilder().GET(), "/trending").statusCode());
+        Assertions.assertEquals(406, send(HttpRequest.newBuilder().GET(), "/messages?limit=2").statusCode());
+        byte[] batch = objectMapper.writeValueAsBytes(List.of(new Message(9999, "first", 1669947801L)));
+        Assertions.assertEquals(406, send(HttpRequest.newBuilder()
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batch)), "/messages/batch").statusCode());
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999 as CBOR, then again with its ETag in If-None-Match,
+     * and POST /messages with a Smile body.
+     *
+     * Expected Response:
+     *  Status Code: 200, 304 and 200, each with Vary: Accept
+     */
+    @Test
+    public void responsesVaryByAccept() throws IOException, InterruptedException {
+        String etag = get("/messages/9999", "application/cbor").headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> notModified = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .header("Accept", "application/cbor")
+                .header("If-None-Match", etag)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(304, notModified.statusCode());
+        Assertions.assertEquals(List.of("Accept"), notModified.headers().allValues("Vary"));
+
+        HttpResponse<byte[]> created = post("/messages", "application/x-jackson-smile",
+                smileMapper.writeValueAsBytes(new Message(9999, "sent as smile", 1669947800L)));
+        Assertions.assertEquals(200, created.statusCode());
+        Assertions.assertEquals(List.of("Accept"), created.headers().allValues("Vary"));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request, String path) throws IOException, InterruptedException {
+        return webClient.send(request
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Accept", MessageColumns.MEDIA_TYPE)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Accept", accept)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(accept, response.headers().firstValue("Content-Type").orElseThrow());
+        Assertions.assertEquals(List.of("Accept"), response.headers().allValues("Vary"));
+        return response;
+    }
+
+    private HttpResponse<byte[]> post(String path, String contentType, byte[] body) throws IOException, InterruptedException {
+        return webClient.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}